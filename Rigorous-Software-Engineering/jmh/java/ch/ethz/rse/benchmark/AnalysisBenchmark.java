@@ -0,0 +1,124 @@
+package ch.ethz.rse.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ch.ethz.rse.VerificationProperty;
+import ch.ethz.rse.numerical.AbstractDomain;
+import ch.ethz.rse.numerical.NumericalAnalysis;
+import ch.ethz.rse.pointer.PointsToInitializer;
+import ch.ethz.rse.utils.Configuration;
+import ch.ethz.rse.verify.Slicer;
+import ch.ethz.rse.verify.VariablePacker;
+import ch.ethz.rse.verify.Verifier;
+import soot.SootClass;
+import soot.SootHelper;
+import soot.SootMethod;
+
+/**
+ * Benchmarks the stages running on a class that is already loaded into Soot,
+ * with points-to analysis results available
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnalysisBenchmark {
+
+	/**
+	 * Property determining what the numerical analysis tracks
+	 */
+	@State(Scope.Benchmark)
+	public static class Tracked {
+
+		@Param({ "NON_NEGATIVE", "OVERALL_PROFIT" })
+		public VerificationProperty property;
+	}
+
+	private SootClass c;
+
+	private PointsToInitializer pointsTo;
+
+	private List<SootMethod> methods;
+
+	@Setup(Level.Trial)
+	public void load(SyntheticInput input) {
+		this.c = SootHelper.loadClassAndAnalyze(input.tc);
+		this.pointsTo = new PointsToInitializer(this.c);
+		this.methods = new ArrayList<SootMethod>();
+		for (SootMethod method : this.c.getMethods()) {
+			if (method.isConcrete()) {
+				this.methods.add(method);
+			}
+		}
+	}
+
+	@Benchmark
+	public PointsToInitializer pointsToInitializer() {
+		return new PointsToInitializer(this.c);
+	}
+
+	/**
+	 * Runs the analyses the {@link Verifier} would run first on each method:
+	 * in the first configured domain, restricted to the slice and split into
+	 * the relevant packs if enabled. Calls are not summarized.
+	 */
+	@Benchmark
+	public void numericalAnalysis(Tracked tracked, Blackhole bh) {
+		AbstractDomain domain = Configuration.props.getDomains().get(0);
+		boolean trackProfit = tracked.property == VerificationProperty.OVERALL_PROFIT;
+		for (SootMethod method : this.methods) {
+			Set<String> slice = Configuration.props.isSlicingEnabled()
+					? new Slicer(method, trackProfit).getVariables()
+					: null;
+			if (!Configuration.props.isVariablePackingEnabled()) {
+				bh.consume(new NumericalAnalysis(method, tracked.property, this.pointsTo, domain, slice));
+				continue;
+			}
+			for (Set<String> pack : new VariablePacker(method, trackProfit).getRelevantPacks()) {
+				if (slice != null) {
+					pack = new LinkedHashSet<String>(pack);
+					pack.retainAll(slice);
+				}
+				bh.consume(new NumericalAnalysis(method, tracked.property, this.pointsTo, domain, pack));
+			}
+		}
+	}
+
+	// the checks below include the Verifier's own points-to initialization and
+	// numerical analysis, as each Verifier memoizes its verdicts
+
+	@Benchmark
+	public boolean checkNonNegative() {
+		return new Verifier(this.c, 1).check(VerificationProperty.NON_NEGATIVE);
+	}
+
+	@Benchmark
+	public boolean checkItemProfit() {
+		return new Verifier(this.c, 1).check(VerificationProperty.ITEM_PROFIT);
+	}
+
+	@Benchmark
+	public boolean checkOverallProfit() {
+		return new Verifier(this.c, 1).check(VerificationProperty.OVERALL_PROFIT);
+	}
+}
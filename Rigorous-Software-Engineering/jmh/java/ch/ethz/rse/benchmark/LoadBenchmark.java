@@ -0,0 +1,53 @@
+package ch.ethz.rse.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import soot.SootClass;
+import soot.SootHelper;
+
+/**
+ * Benchmarks loading a class into Soot and running the points-to analysis on
+ * it. Both reset or rebuild the global Soot scene, so they cannot share state
+ * with {@link AnalysisBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LoadBenchmark {
+
+	/**
+	 * A freshly loaded class, before the points-to analysis
+	 */
+	@State(Scope.Thread)
+	public static class Loaded {
+
+		@Setup(Level.Invocation)
+		public void load(SyntheticInput input) {
+			SootHelper.loadClass(input.tc);
+		}
+	}
+
+	@Benchmark
+	public SootClass loadClass(SyntheticInput input) {
+		return SootHelper.loadClass(input.tc);
+	}
+
+	@Benchmark
+	public void runPointsToAnalysis(Loaded loaded) {
+		SootHelper.runPointsToAnalysis();
+	}
+}
@@ -0,0 +1,57 @@
+package ch.ethz.rse.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ch.ethz.rse.testing.SyntheticProgramGenerator;
+import ch.ethz.rse.utils.Configuration;
+import ch.ethz.rse.verify.ClassToVerify;
+
+/**
+ * A generated class to verify, of growing size. Restrict the sizes to measure
+ * using JMH's <code>-p</code> option, e.g., <code>-p locals=16</code>.
+ */
+@State(Scope.Benchmark)
+public class SyntheticInput {
+
+	@Param({ "1", "8" })
+	public int methods;
+
+	@Param({ "4", "16", "64" })
+	public int locals;
+
+	@Param({ "1", "3", "5" })
+	public int branchDepth;
+
+	@Param({ "0", "1", "2" })
+	public int loopDepth;
+
+	@Param({ "1", "4" })
+	public int frogs;
+
+	@Param({ "4", "32" })
+	public int sells;
+
+	public ClassToVerify tc;
+
+	@Setup(Level.Trial)
+	public void generate() throws IOException {
+		if (Configuration.props.getVerdictCacheDir() != null) {
+			// cached verdicts would skip the numerical analysis
+			throw new IllegalStateException("Unset VERDICT_CACHE_DIR before benchmarking");
+		}
+		String basedir = Configuration.props.getBasedir();
+		File sourceDir = new File(basedir + "/target/generated-sources/synthetic");
+		File classesDir = new File(basedir + "/target/test-classes");
+
+		SyntheticProgramGenerator generator = new SyntheticProgramGenerator(this.methods, this.locals,
+				this.branchDepth, this.loopDepth, this.frogs, this.sells, 0);
+		this.tc = new ClassToVerify(classesDir, generator.compile(sourceDir, classesDir));
+	}
+}
@@ -0,0 +1,23 @@
+#!/bin/sh
+# Compiles the benchmarks in jmh/java and runs them with JMH, passing all
+# arguments to JMH (e.g. "jmh/run.sh AnalysisBenchmark -p locals=16").
+#
+# The analyzer must already be built. CLASSPATH must contain its compiled main
+# and test classes, the directory holding properties.config, its dependencies,
+# and the jmh-core and jmh-generator-annprocess jars. The annotation processor
+# is picked up from CLASSPATH by javac and generates the benchmark harness.
+set -e
+
+if [ -z "$CLASSPATH" ]; then
+	echo "CLASSPATH must contain the built analyzer, its dependencies and JMH" >&2
+	exit 1
+fi
+
+dir=$(cd "$(dirname "$0")" && pwd)
+classes="$dir/target/classes"
+
+rm -rf "$classes"
+mkdir -p "$classes"
+javac -d "$classes" -cp "$CLASSPATH" $(find "$dir/java" -name '*.java')
+
+exec java -cp "$classes:$CLASSPATH" org.openjdk.jmh.Main "$@"
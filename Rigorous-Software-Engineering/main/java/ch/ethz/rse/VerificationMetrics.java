@@ -0,0 +1,284 @@
+package ch.ethz.rse;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import ch.ethz.rse.numerical.NumericalAnalysis;
+import soot.SootMethod;
+import soot.Unit;
+
+/**
+ * Per-phase measurements of a verification, returned alongside its
+ * {@link VerificationResult}. Analyses of different methods may report
+ * concurrently.
+ */
+public class VerificationMetrics {
+
+	private long sootLoadNanos = 0;
+	private long pointsToNanos = 0;
+	private long verifyNanos = 0;
+
+	private int methods = 0;
+	private int units = 0;
+
+	/**
+	 * number of methods not analyzed because they contain no call to sell
+	 */
+	private int prunedMethods = 0;
+
+	/**
+	 * number of numerical analyses (one per method, pack and domain)
+	 */
+	private int analyses = 0;
+
+	/**
+	 * largest number of variables in the environment of any analysis
+	 */
+	private int maxEnvironmentSize = 0;
+
+	private long flowThroughCount = 0;
+	private long mergeCount = 0;
+
+	/**
+	 * widening applications per loop head, keyed by method and unit
+	 */
+	private final Map<String, Integer> wideningCount = new TreeMap<String, Integer>();
+
+	/**
+	 * merges until stabilization per loop head, keyed by method and unit
+	 */
+	private final Map<String, Integer> iterationCount = new TreeMap<String, Integer>();
+
+	private long joinNanos = 0;
+	private long meetNanos = 0;
+	private long assignNanos = 0;
+
+	private long peakHeapBytes = 0;
+
+	// RECORDING
+
+	public synchronized void addSootLoad(long nanos) {
+		this.sootLoadNanos += nanos;
+	}
+
+	public synchronized void addPointsTo(long nanos) {
+		this.pointsToNanos += nanos;
+	}
+
+	/**
+	 *
+	 * @param nanos time spent running and checking the numerical analyses
+	 */
+	public synchronized void addVerify(long nanos) {
+		this.verifyNanos += nanos;
+	}
+
+	/**
+	 * Records a method about to be analyzed
+	 *
+	 * @param method
+	 */
+	public synchronized void addMethod(SootMethod method) {
+		this.methods++;
+		this.units += method.retrieveActiveBody().getUnits().size();
+	}
+
+	/**
+	 * Records a method skipped because it contains no call to sell
+	 *
+	 * @param method
+	 */
+	public synchronized void addPrunedMethod(SootMethod method) {
+		this.prunedMethods++;
+	}
+
+	/**
+	 * Records the statistics of a finished analysis
+	 *
+	 * @param method   analyzed method
+	 * @param analysis
+	 */
+	public synchronized void addAnalysis(SootMethod method, NumericalAnalysis analysis) {
+		this.analyses++;
+		this.maxEnvironmentSize = Math.max(this.maxEnvironmentSize, analysis.env.getIntVars().length);
+		this.flowThroughCount += analysis.getFlowThroughCount();
+		this.mergeCount += analysis.getMergeCount();
+		for (Map.Entry<Unit, Integer> e : analysis.getWideningCount().entrySet()) {
+			this.wideningCount.merge(method.getSignature() + " " + e.getKey(), e.getValue(), Integer::sum);
+		}
+		for (Map.Entry<Unit, Integer> e : analysis.getIterationCount().entrySet()) {
+			this.iterationCount.merge(method.getSignature() + " " + e.getKey(), e.getValue(), Integer::sum);
+		}
+		this.joinNanos += analysis.getJoinNanos();
+		this.meetNanos += analysis.getMeetNanos();
+		this.assignNanos += analysis.getAssignNanos();
+	}
+
+	/**
+	 * Resets the peak usage of all heap memory pools, so that
+	 * {@link #recordPeakHeap()} only reflects what follows
+	 */
+	public static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	/**
+	 * Records the sum of the peak usage of all heap memory pools (an upper bound
+	 * on the peak heap usage)
+	 */
+	public synchronized void recordPeakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		this.peakHeapBytes = Math.max(this.peakHeapBytes, peak);
+	}
+
+	// ACCESS
+
+	public synchronized long getSootLoadNanos() {
+		return this.sootLoadNanos;
+	}
+
+	public synchronized long getPointsToNanos() {
+		return this.pointsToNanos;
+	}
+
+	public synchronized long getVerifyNanos() {
+		return this.verifyNanos;
+	}
+
+	public synchronized int getMethods() {
+		return this.methods;
+	}
+
+	public synchronized int getUnits() {
+		return this.units;
+	}
+
+	public synchronized int getPrunedMethods() {
+		return this.prunedMethods;
+	}
+
+	public synchronized int getAnalyses() {
+		return this.analyses;
+	}
+
+	public synchronized int getMaxEnvironmentSize() {
+		return this.maxEnvironmentSize;
+	}
+
+	public synchronized long getFlowThroughCount() {
+		return this.flowThroughCount;
+	}
+
+	public synchronized long getMergeCount() {
+		return this.mergeCount;
+	}
+
+	public synchronized Map<String, Integer> getWideningCount() {
+		return new TreeMap<String, Integer>(this.wideningCount);
+	}
+
+	public synchronized Map<String, Integer> getIterationCount() {
+		return new TreeMap<String, Integer>(this.iterationCount);
+	}
+
+	public synchronized long getJoinNanos() {
+		return this.joinNanos;
+	}
+
+	public synchronized long getMeetNanos() {
+		return this.meetNanos;
+	}
+
+	public synchronized long getAssignNanos() {
+		return this.assignNanos;
+	}
+
+	public synchronized long getPeakHeapBytes() {
+		return this.peakHeapBytes;
+	}
+
+	// EXPORT
+
+	/**
+	 *
+	 * @return a JSON object holding all metrics, with times in milliseconds
+	 */
+	public synchronized String toJson() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("{");
+		sb.append("\"sootLoadMs\":").append(VerificationMetrics.millis(this.sootLoadNanos));
+		sb.append(",\"pointsToMs\":").append(VerificationMetrics.millis(this.pointsToNanos));
+		sb.append(",\"verifyMs\":").append(VerificationMetrics.millis(this.verifyNanos));
+		sb.append(",\"methods\":").append(this.methods);
+		sb.append(",\"units\":").append(this.units);
+		sb.append(",\"prunedMethods\":").append(this.prunedMethods);
+		sb.append(",\"analyses\":").append(this.analyses);
+		sb.append(",\"maxEnvironmentSize\":").append(this.maxEnvironmentSize);
+		sb.append(",\"flowThroughCalls\":").append(this.flowThroughCount);
+		sb.append(",\"mergeCalls\":").append(this.mergeCount);
+		sb.append(",\"widenings\":");
+		VerificationMetrics.appendCounts(sb, this.wideningCount);
+		sb.append(",\"iterations\":");
+		VerificationMetrics.appendCounts(sb, this.iterationCount);
+		sb.append(",\"apronJoinMs\":").append(VerificationMetrics.millis(this.joinNanos));
+		sb.append(",\"apronMeetMs\":").append(VerificationMetrics.millis(this.meetNanos));
+		sb.append(",\"apronAssignMs\":").append(VerificationMetrics.millis(this.assignNanos));
+		sb.append(",\"peakHeapBytes\":").append(this.peakHeapBytes);
+		sb.append("}");
+		return sb.toString();
+	}
+
+	private static void appendCounts(StringBuilder sb, Map<String, Integer> counts) {
+		sb.append("{");
+		boolean first = true;
+		for (Map.Entry<String, Integer> e : counts.entrySet()) {
+			if (!first) {
+				sb.append(",");
+			}
+			first = false;
+			sb.append(VerificationMetrics.quote(e.getKey())).append(":").append(e.getValue());
+		}
+		sb.append("}");
+	}
+
+	private static String millis(long nanos) {
+		return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+	}
+
+	/**
+	 *
+	 * @param s
+	 * @return <code>s</code> as a JSON string literal
+	 */
+	public static String quote(String s) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (char ch : s.toCharArray()) {
+			if (ch == '"' || ch == '\\') {
+				sb.append('\\').append(ch);
+			} else if (ch < 0x20) {
+				sb.append(String.format(Locale.ROOT, "\\u%04x", (int) ch));
+			} else {
+				sb.append(ch);
+			}
+		}
+		return sb.append("\"").toString();
+	}
+
+	@Override
+	public String toString() {
+		return this.toJson();
+	}
+}
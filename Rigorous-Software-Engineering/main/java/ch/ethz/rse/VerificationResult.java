@@ -15,10 +15,20 @@ public class VerificationResult {
 	 */
 	public final boolean isSafe;
 
+	/**
+	 * Measurements taken while verifying, or null if none were taken
+	 */
+	public final VerificationMetrics metrics;
+
 	// CONSTRUCTOR
 
 	public VerificationResult(boolean isSafe) {
+		this(isSafe, null);
+	}
+
+	public VerificationResult(boolean isSafe, VerificationMetrics metrics) {
 		this.isSafe = isSafe;
+		this.metrics = metrics;
 	}
 
 	// UTILITY
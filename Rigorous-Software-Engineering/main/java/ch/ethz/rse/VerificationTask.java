@@ -2,6 +2,7 @@ package ch.ethz.rse;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.List;
 
 import ch.ethz.rse.utils.Configuration;
 import ch.ethz.rse.verify.ClassToVerify;
@@ -19,9 +20,7 @@ public class VerificationTask implements Comparable<VerificationTask> {
 	public VerificationTask(String packageName, VerificationProperty property) {
 		try {
 			this.packageName = packageName;
-			String basedir = Configuration.props.getBasedir();
-			File classPath = new File(basedir + "/target/test-classes");
-			this.tc = new ClassToVerify(classPath, packageName);
+			this.tc = new ClassToVerify(VerificationTask.getClassPath(), packageName);
 		} catch (FileNotFoundException e) {
 			throw new RuntimeException("Did you compile your tests, e.g., using `mvn test-compile`?", e);
 		}
@@ -32,6 +31,24 @@ public class VerificationTask implements Comparable<VerificationTask> {
 		return this.tc;
 	}
 
+	/**
+	 * 
+	 * @param packageName a package containing classes to verify
+	 * @return fully qualified names of all classes in <code>packageName</code>
+	 */
+	public static List<String> classesInPackage(String packageName) {
+		try {
+			return ClassToVerify.findClasses(VerificationTask.getClassPath(), packageName);
+		} catch (FileNotFoundException e) {
+			throw new RuntimeException("Did you compile your tests, e.g., using `mvn test-compile`?", e);
+		}
+	}
+
+	private static File getClassPath() {
+		String basedir = Configuration.props.getBasedir();
+		return new File(basedir + "/target/test-classes");
+	}
+
 	@Override
 	public String toString() {
 		return this.tc.getName() + ":" + this.property.toString();
@@ -1,40 +1,203 @@
 package ch.ethz.rse.main;
 
+import ch.ethz.rse.VerificationMetrics;
 import ch.ethz.rse.VerificationProperty;
 import ch.ethz.rse.VerificationResult;
 import ch.ethz.rse.VerificationTask;
+import ch.ethz.rse.utils.Configuration;
+import ch.ethz.rse.utils.FileUtilsWrapper;
 import org.apache.commons.cli.*;
 
+import com.google.common.base.Strings;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
 /**
  * Entry point for verifying a given program
  */
 public class Main {
 	
-	public static void main(String[] args) throws ParseException {
+	public static void main(String[] args) throws ParseException, IOException {
 		// prepare parser
 		Options options = new Options();
 		// parse package name
-        Option packageNameOption = new Option("n", "packageName", true, "Fully qualified name of class to check");
-        packageNameOption.setRequired(true);
+        Option packageNameOption = new Option("n", "packageName", true, "Fully qualified name of class to check (comma-separated list, or package.* for all classes in a package)");
         options.addOption(packageNameOption);
 		// parse property to verify
-        Option propertyOption = new Option("p", "property", true, "Property to check");
-        propertyOption.setRequired(true);
+        Option propertyOption = new Option("p", "property", true, "Property to check (comma-separated list or ALL to check several at once)");
 		options.addOption(propertyOption);
+		// parse number of analysis threads
+		Option threadsOption = new Option("t", "threads", true, "Number of threads analyzing methods in parallel (0 for all cores)");
+		options.addOption(threadsOption);
+		// parse numerical domain
+		Option domainOption = new Option("d", "domain", true, "Numerical domain (BOX, OCTAGON, POLKA, POLKA_STRICT), or a comma-separated cascade from cheap to precise");
+		options.addOption(domainOption);
+		// parse configuration overrides
+		Option configOption = Option.builder("D").hasArgs().valueSeparator('=').argName("KEY=VALUE")
+				.desc("Override a property of properties.config").build();
+		options.addOption(configOption);
+		// parse server mode
+		Option serveOption = new Option("s", "serve", true, "Serve verification requests on this loopback port instead of verifying a single class");
+		options.addOption(serveOption);
+		// parse metrics export
+		Option metricsOption = new Option("m", "metrics", true, "Write per-phase metrics of each task to this JSON file");
+		options.addOption(metricsOption);
 		// build parser
 		CommandLineParser parser = new DefaultParser();
 		CommandLine cmd = parser.parse(options, args);
+
+		// apply configuration
+		Properties overrides = cmd.getOptionProperties("D");
+		for (String key : overrides.stringPropertyNames()) {
+			Configuration.props.setProperty(key, overrides.getProperty(key));
+		}
+		if (cmd.hasOption("t")) {
+			Configuration.props.setProperty("ANALYSIS_THREADS", cmd.getOptionValue("t"));
+		}
+		if (cmd.hasOption("d")) {
+			Configuration.props.setProperty("DOMAIN", cmd.getOptionValue("d"));
+		}
+
+		if (cmd.hasOption("s")) {
+			// keep serving until the process is killed
+			Server server = new Server(Integer.parseInt(cmd.getOptionValue("s")));
+			Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+			server.start();
+			System.out.println("Listening on port " + server.getPort());
+			return;
+		}
+		if (!cmd.hasOption("n") || !cmd.hasOption("p")) {
+			throw new MissingOptionException("Missing required options: n, p");
+		}
 		
-		// prepare task
-		String packageName = cmd.getOptionValue("n");
-		String property = cmd.getOptionValue("p");
-		VerificationTask t = new VerificationTask(packageName, VerificationProperty.valueOf(property));
-
-		// run verification
-		VerificationResult result = Runner.verify(t);
-		System.out.flush();
-		System.err.flush();
-		System.out.println("FINAL OUTPUT:" + result.toString());
+		// prepare tasks
+		List<String> packageNames = Main.parseClasses(cmd.getOptionValue("n"));
+		List<VerificationProperty> properties = Main.parseProperties(cmd.getOptionValue("p"));
+		List<VerificationTask> tasks = new LinkedList<VerificationTask>();
+		for (String packageName : packageNames) {
+			for (VerificationProperty property : properties) {
+				tasks.add(new VerificationTask(packageName, property));
+			}
+		}
+
+		if (packageNames.size() > 1) {
+			// run verification of all classes in a single Soot scene
+			Map<VerificationTask, VerificationResult> results = Runner.verifyBatch(tasks);
+			System.out.flush();
+			System.err.flush();
+			Main.printTable(results);
+			Main.writeMetrics(cmd, results);
+		} else if (tasks.size() == 1) {
+			// run verification
+			VerificationResult result = Runner.verify(tasks.get(0));
+			System.out.flush();
+			System.err.flush();
+			System.out.println("FINAL OUTPUT:" + result.toString());
+			Main.writeMetrics(cmd, Collections.singletonMap(tasks.get(0), result));
+		} else {
+			// run verification of all properties at once
+			Map<VerificationTask, VerificationResult> results = Runner.verifyAll(tasks);
+			System.out.flush();
+			System.err.flush();
+			for (Map.Entry<VerificationTask, VerificationResult> e : results.entrySet()) {
+				System.out.println("FINAL OUTPUT:" + e.getKey().property + ":" + e.getValue().toString());
+			}
+			Main.writeMetrics(cmd, results);
+		}
+	}
+
+	/**
+	 * Writes the metrics of each task as a JSON array, if requested by option -m
+	 * 
+	 * @param cmd
+	 * @param results
+	 */
+	private static void writeMetrics(CommandLine cmd, Map<VerificationTask, VerificationResult> results) {
+		if (!cmd.hasOption("m")) {
+			return;
+		}
+		StringBuilder sb = new StringBuilder("[\n");
+		boolean first = true;
+		for (Map.Entry<VerificationTask, VerificationResult> e : results.entrySet()) {
+			if (!first) {
+				sb.append(",\n");
+			}
+			first = false;
+			VerificationTask t = e.getKey();
+			sb.append("{\"class\":").append(VerificationMetrics.quote(t.getTestClass().getPackageName()));
+			sb.append(",\"property\":").append(VerificationMetrics.quote(t.property.toString()));
+			sb.append(",\"verdict\":").append(VerificationMetrics.quote(e.getValue().toString()));
+			sb.append(",\"metrics\":").append(e.getValue().metrics.toJson()).append("}");
+		}
+		sb.append("\n]\n");
+		FileUtilsWrapper.writeStringToFile(new File(cmd.getOptionValue("m")), sb.toString());
+	}
+
+	/**
+	 * 
+	 * @param value comma-separated list of classes, where package.* stands for
+	 *              all classes in package
+	 * @return fully qualified names of the classes described by
+	 *         <code>value</code>
+	 */
+	private static List<String> parseClasses(String value) {
+		List<String> packageNames = new LinkedList<String>();
+		for (String packageName : value.split(",")) {
+			packageName = packageName.trim();
+			if (packageName.endsWith(".*")) {
+				String pkg = packageName.substring(0, packageName.length() - 2);
+				packageNames.addAll(VerificationTask.classesInPackage(pkg));
+			} else {
+				packageNames.add(packageName);
+			}
+		}
+		return packageNames;
+	}
+
+	/**
+	 * Prints one line per task: class, property and verdict
+	 * 
+	 * @param results
+	 */
+	private static void printTable(Map<VerificationTask, VerificationResult> results) {
+		int width = "class".length();
+		for (VerificationTask t : results.keySet()) {
+			width = Math.max(width, t.getTestClass().getPackageName().length());
+		}
+		System.out.println(Strings.padEnd("class", width, ' ') + "  " + Strings.padEnd("property", 14, ' ') + "  verdict");
+		for (Map.Entry<VerificationTask, VerificationResult> e : results.entrySet()) {
+			VerificationTask t = e.getKey();
+			System.out.println(Strings.padEnd(t.getTestClass().getPackageName(), width, ' ') + "  "
+					+ Strings.padEnd(t.property.toString(), 14, ' ') + "  " + e.getValue().toString());
+		}
+	}
+
+	/**
+	 * 
+	 * @param value comma-separated list of properties, or ALL
+	 * @return the properties described by <code>value</code>
+	 */
+	static List<VerificationProperty> parseProperties(String value) {
+		List<VerificationProperty> properties = new LinkedList<VerificationProperty>();
+		if (value.equals("ALL")) {
+			for (VerificationProperty property : VerificationProperty.values()) {
+				properties.add(property);
+			}
+			return properties;
+		}
+		for (String property : value.split(",")) {
+			VerificationProperty p = VerificationProperty.valueOf(property.trim());
+			if (!properties.contains(p)) {
+				properties.add(p);
+			}
+		}
+		return properties;
 	}
 
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package ch.ethz.rse.main;
 
+import ch.ethz.rse.VerificationMetrics;
+import ch.ethz.rse.VerificationProperty;
 import ch.ethz.rse.VerificationTask;
 import ch.ethz.rse.VerificationResult;
+import ch.ethz.rse.utils.Configuration;
 import ch.ethz.rse.verify.AVerifier;
 import ch.ethz.rse.verify.ClassToVerify;
 import ch.ethz.rse.verify.Verifier;
@@ -10,6 +13,15 @@ import org.slf4j.LoggerFactory;
 import soot.SootClass;
 import soot.SootHelper;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
 /**
  * Convenience wrapper for verifying a given {@link VerificationTask}
  */
@@ -29,20 +41,195 @@ public class Runner {
 		return ret;
 	}
 
+	/**
+	 * Verifies several properties of the same class, running the numerical
+	 * analysis only once per method
+	 * 
+	 * @param tasks tasks that all refer to the same class
+	 * @return the result of each task
+	 */
+	public static Map<VerificationTask, VerificationResult> verifyAll(List<VerificationTask> tasks) {
+		long startTime = System.nanoTime();
+
+		Map<VerificationTask, VerificationResult> ret = Runner.verifyAllInternal(tasks);
+
+		long endTime = System.nanoTime();
+		long durationMilliseconds = (endTime - startTime) / 1000000;
+		logger.debug("Runtime: Verified {} in {}ms", tasks, durationMilliseconds);
+
+		return ret;
+	}
+
+	/**
+	 * Verifies tasks on many classes, loading all classes into Soot and running
+	 * the points-to analysis only once. The metrics of each class hold its share
+	 * of the load and points-to times (see {@link #share(long, int, int)}), so
+	 * they can be summed over the batch.
+	 * 
+	 * @param tasks tasks on arbitrary classes
+	 * @return the result of each task
+	 */
+	public static Map<VerificationTask, VerificationResult> verifyBatch(List<VerificationTask> tasks) {
+		long startTime = System.nanoTime();
+
+		Map<VerificationTask, VerificationResult> ret = Runner.verifyBatchInternal(tasks);
+
+		long endTime = System.nanoTime();
+		long durationMilliseconds = (endTime - startTime) / 1000000;
+		logger.debug("Runtime: Verified {} tasks in {}ms", tasks.size(), durationMilliseconds);
+
+		return ret;
+	}
+
 	private static VerificationResult verifyInternal(VerificationTask t) {
 		logger.debug("Verifying {}", t.toString());
 
 		ClassToVerify tc = t.getTestClass();
+		VerificationMetrics metrics = new VerificationMetrics();
+		VerificationMetrics.resetPeakHeap();
 
 		// load analyzed class
-		SootClass c = SootHelper.loadClassAndAnalyze(tc);
+		SootClass c = Runner.loadAndAnalyze(tc, metrics);
 
 		VerificationResult ret;
 
-		AVerifier v = new Verifier(c);
+		long startTime = System.nanoTime();
+		AVerifier v = new Verifier(c, Configuration.props.getAnalysisThreads(), metrics);
 		boolean isSafe = v.check(t.property);
-		ret = new VerificationResult(isSafe);
+		metrics.addVerify(System.nanoTime() - startTime);
+		metrics.recordPeakHeap();
+		ret = new VerificationResult(isSafe, metrics);
+
+		return ret;
+	}
+
+	private static Map<VerificationTask, VerificationResult> verifyAllInternal(List<VerificationTask> tasks) {
+		if (tasks.isEmpty()) {
+			throw new IllegalArgumentException("No task to verify");
+		}
+		ClassToVerify tc = tasks.get(0).getTestClass();
+		for (VerificationTask t : tasks) {
+			if (!t.getTestClass().getPackageName().equals(tc.getPackageName())) {
+				throw new IllegalArgumentException("Expected tasks on " + tc + ", got " + t);
+			}
+		}
+
+		VerificationMetrics metrics = new VerificationMetrics();
+		VerificationMetrics.resetPeakHeap();
+
+		// load analyzed class
+		SootClass c = Runner.loadAndAnalyze(tc, metrics);
+
+		return Runner.verifyLoaded(c, tasks, metrics);
+	}
+
+	private static Map<VerificationTask, VerificationResult> verifyBatchInternal(List<VerificationTask> tasks) {
+		Map<String, List<VerificationTask>> perClass = Runner.groupByClass(tasks);
+		List<ClassToVerify> tcs = new ArrayList<ClassToVerify>();
+		for (List<VerificationTask> classTasks : perClass.values()) {
+			tcs.add(classTasks.get(0).getTestClass());
+		}
+
+		VerificationMetrics.resetPeakHeap();
+
+		// load all analyzed classes into a single Scene and call graph, sharing
+		// the load and points-to times among all classes (see share)
+		long startTime = System.nanoTime();
+		List<SootClass> cs = SootHelper.loadClasses(tcs);
+		long loadNanos = System.nanoTime() - startTime;
+		startTime = System.nanoTime();
+		SootHelper.runPointsToAnalysis();
+		long pointsToNanos = System.nanoTime() - startTime;
+
+		Map<VerificationTask, VerificationResult> ret = new TreeMap<VerificationTask, VerificationResult>();
+		for (int i = 0; i < cs.size(); i++) {
+			SootClass c = cs.get(i);
+			VerificationMetrics metrics = new VerificationMetrics();
+			metrics.addSootLoad(Runner.share(loadNanos, cs.size(), i));
+			metrics.addPointsTo(Runner.share(pointsToNanos, cs.size(), i));
+			ret.putAll(Runner.verifyLoaded(c, perClass.get(c.getName()), metrics));
+		}
+		return ret;
+	}
+
+	/**
+	 * Splits the time of a phase shared by a batch evenly among its classes, so
+	 * that the per-class times sum up to the time of the phase
+	 * 
+	 * @param nanos   time of the shared phase
+	 * @param classes number of classes in the batch
+	 * @param i       index of a class in the batch
+	 * @return the part of <code>nanos</code> charged to the <code>i</code>-th
+	 *         class
+	 */
+	static long share(long nanos, int classes, int i) {
+		return nanos / classes + (i < nanos % classes ? 1 : 0);
+	}
+
+	/**
+	 * Loads <code>tc</code> and runs the points-to analysis, recording the time
+	 * of each phase
+	 * 
+	 * @param tc
+	 * @param metrics
+	 * @return the Soot representation of <code>tc</code>
+	 */
+	private static SootClass loadAndAnalyze(ClassToVerify tc, VerificationMetrics metrics) {
+		long startTime = System.nanoTime();
+		SootClass c = SootHelper.loadClass(tc);
+		metrics.addSootLoad(System.nanoTime() - startTime);
+
+		startTime = System.nanoTime();
+		SootHelper.runPointsToAnalysis();
+		metrics.addPointsTo(System.nanoTime() - startTime);
+		return c;
+	}
+
+	/**
+	 * 
+	 * @param tasks
+	 * @return tasks keyed by the fully qualified name of the class they refer
+	 *         to, in order of first appearance
+	 */
+	static Map<String, List<VerificationTask>> groupByClass(List<VerificationTask> tasks) {
+		Map<String, List<VerificationTask>> perClass = new LinkedHashMap<String, List<VerificationTask>>();
+		for (VerificationTask t : tasks) {
+			String packageName = t.getTestClass().getPackageName();
+			if (!perClass.containsKey(packageName)) {
+				perClass.put(packageName, new LinkedList<VerificationTask>());
+			}
+			perClass.get(packageName).add(t);
+		}
+		return perClass;
+	}
+
+	/**
+	 * 
+	 * @param c     class already loaded into Soot, with points-to analysis
+	 *              results available
+	 * @param tasks   tasks on <code>c</code>
+	 * @param metrics receives the statistics of verifying <code>c</code>,
+	 *                shared by the results of all <code>tasks</code>
+	 * @return the result of each task
+	 */
+	static Map<VerificationTask, VerificationResult> verifyLoaded(SootClass c, List<VerificationTask> tasks,
+			VerificationMetrics metrics) {
+		Set<VerificationProperty> properties = EnumSet.noneOf(VerificationProperty.class);
+		for (VerificationTask t : tasks) {
+			properties.add(t.property);
+		}
+		logger.debug("Verifying {} of {}", properties, c.getName());
+
+		long startTime = System.nanoTime();
+		AVerifier v = new Verifier(c, Configuration.props.getAnalysisThreads(), metrics);
+		Map<VerificationProperty, Boolean> isSafe = v.check(properties);
+		metrics.addVerify(System.nanoTime() - startTime);
+		metrics.recordPeakHeap();
 
+		Map<VerificationTask, VerificationResult> ret = new TreeMap<VerificationTask, VerificationResult>();
+		for (VerificationTask t : tasks) {
+			ret.put(t, new VerificationResult(isSafe.get(t.property), metrics));
+		}
 		return ret;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package ch.ethz.rse.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import ch.ethz.rse.VerificationProperty;
+import ch.ethz.rse.VerificationResult;
+import ch.ethz.rse.VerificationTask;
+import ch.ethz.rse.testing.SyntheticProgramGenerator;
+import ch.ethz.rse.utils.Configuration;
+
+/**
+ * Measures how {@link Runner#verify(VerificationTask)} scales, by verifying
+ * generated classes whose number of methods, locals and calls to sell doubles
+ * in each step
+ */
+public class ScalingExperiment {
+
+	public static void main(String[] args) throws ParseException, IOException {
+		Options options = new Options();
+		options.addOption(new Option("m", "methods", true, "Number of methods in the first step (default 1)"));
+		options.addOption(new Option("l", "locals", true, "Number of locals per method in the first step (default 4)"));
+		options.addOption(new Option("b", "branchDepth", true, "Depth of the if statements guarding calls to sell (default 3)"));
+		options.addOption(new Option("n", "loopDepth", true, "Depth of the loop nest (default 1)"));
+		options.addOption(new Option("f", "frogs", true, "Number of Frog allocations per method (default 2)"));
+		options.addOption(new Option("c", "sells", true, "Number of calls to sell per method in the first step (default 4)"));
+		options.addOption(new Option("k", "steps", true, "Number of doublings (default 5)"));
+		options.addOption(new Option("p", "property", true, "Property to check (comma-separated list or ALL, default ALL)"));
+		CommandLineParser parser = new DefaultParser();
+		CommandLine cmd = parser.parse(options, args);
+
+		int methods = Integer.parseInt(cmd.getOptionValue("m", "1"));
+		int locals = Integer.parseInt(cmd.getOptionValue("l", "4"));
+		int branchDepth = Integer.parseInt(cmd.getOptionValue("b", "3"));
+		int loopDepth = Integer.parseInt(cmd.getOptionValue("n", "1"));
+		int frogs = Integer.parseInt(cmd.getOptionValue("f", "2"));
+		int sells = Integer.parseInt(cmd.getOptionValue("c", "4"));
+		int steps = Integer.parseInt(cmd.getOptionValue("k", "5"));
+		List<VerificationProperty> properties = Main.parseProperties(cmd.getOptionValue("p", "ALL"));
+
+		String basedir = Configuration.props.getBasedir();
+		File sourceDir = new File(basedir + "/target/generated-sources/synthetic");
+		File classesDir = new File(basedir + "/target/test-classes");
+
+		System.out.println("class,property,verdict,sells,time_ms,sells_per_s,peak_heap_mb");
+		for (int step = 0; step < steps; step++) {
+			int scale = 1 << step;
+			SyntheticProgramGenerator generator = new SyntheticProgramGenerator(methods * scale, locals * scale,
+					branchDepth, loopDepth, frogs, sells * scale, step);
+			String packageName = generator.compile(sourceDir, classesDir);
+
+			for (VerificationProperty property : properties) {
+				VerificationTask task = new VerificationTask(packageName, property);
+
+				// peak heap is measured from here on
+				System.gc();
+				long startTime = System.nanoTime();
+				VerificationResult result = Runner.verify(task);
+				long durationNanoseconds = System.nanoTime() - startTime;
+				long peakHeap = result.metrics.getPeakHeapBytes();
+
+				double sellsPerSecond = generator.getSellCount() * 1e9 / durationNanoseconds;
+				System.out.println(String.format("%s,%s,%s,%d,%d,%.1f,%.1f", generator.getClassName(), property,
+						result, generator.getSellCount(), durationNanoseconds / 1000000, sellsPerSecond,
+						peakHeap / (1024.0 * 1024.0)));
+			}
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package ch.ethz.rse.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import ch.ethz.rse.VerificationMetrics;
+import ch.ethz.rse.VerificationProperty;
+import ch.ethz.rse.VerificationResult;
+import ch.ethz.rse.VerificationTask;
+import ch.ethz.rse.utils.Constants;
+import ch.ethz.rse.verify.ClassToVerify;
+import soot.SootClass;
+import soot.SootHelper;
+
+/**
+ * Long-running verification service on the loopback interface. Keeps the JVM,
+ * the Apron native library and, as long as the requested classes and Frog are
+ * not recompiled, the Soot scene and call graph warm between requests.
+ * 
+ * Request: <code>GET /verify?class=a.B,c.D&property=NON_NEGATIVE,ITEM_PROFIT</code>
+ * (<code>property</code> defaults to ALL). Response: one line
+ * <code>class,property,verdict</code> per task. The time spent on the request
+ * is reported in the <code>X-Verification-Time-Ms</code> header.
+ */
+public class Server {
+
+	private static final Logger logger = LoggerFactory.getLogger(Server.class);
+
+	private final HttpServer server;
+
+	private final ExecutorService executor;
+
+	/**
+	 * Identifies the classes currently loaded into Soot, see
+	 * {@link #sceneKey(List)}
+	 */
+	private String loadedKey = null;
+
+	/**
+	 * Classes currently loaded into Soot, keyed by fully qualified name
+	 */
+	private final Map<String, SootClass> loaded = new HashMap<String, SootClass>();
+
+	/**
+	 * 
+	 * @param port port to listen on (0 picks a free port)
+	 * @throws IOException
+	 */
+	public Server(int port) throws IOException {
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		this.server.createContext("/verify", this::handleVerify);
+		// Soot keeps global state, so requests are served one at a time
+		this.executor = Executors.newSingleThreadExecutor();
+		this.server.setExecutor(this.executor);
+	}
+
+	public void start() {
+		this.server.start();
+		logger.info("Listening on {}", this.server.getAddress());
+	}
+
+	public void stop() {
+		this.server.stop(0);
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * 
+	 * @return the port this server listens on
+	 */
+	public int getPort() {
+		return this.server.getAddress().getPort();
+	}
+
+	/**
+	 * Verifies the given tasks, reloading Soot only if the requested classes are
+	 * not all loaded already or one of them or Frog was recompiled since
+	 * 
+	 * @param tasks
+	 * @return the result of each task
+	 */
+	public synchronized Map<VerificationTask, VerificationResult> verify(List<VerificationTask> tasks) {
+		Map<String, List<VerificationTask>> perClass = Runner.groupByClass(tasks);
+		List<ClassToVerify> tcs = new ArrayList<ClassToVerify>();
+		for (List<VerificationTask> classTasks : perClass.values()) {
+			tcs.add(classTasks.get(0).getTestClass());
+		}
+
+		String key = Server.sceneKey(tcs);
+		if (!key.equals(this.loadedKey)) {
+			logger.info("Loading {} classes into Soot", tcs.size());
+			this.loaded.clear();
+			this.loadedKey = null;
+			for (SootClass c : SootHelper.loadClassesAndAnalyze(tcs)) {
+				this.loaded.put(c.getName(), c);
+			}
+			this.loadedKey = key;
+		} else {
+			logger.debug("Reusing loaded classes");
+		}
+
+		Map<VerificationTask, VerificationResult> ret = new TreeMap<VerificationTask, VerificationResult>();
+		for (Map.Entry<String, List<VerificationTask>> e : perClass.entrySet()) {
+			ret.putAll(Runner.verifyLoaded(this.loaded.get(e.getKey()), e.getValue(), new VerificationMetrics()));
+		}
+		return ret;
+	}
+
+	/**
+	 * 
+	 * @param tcs
+	 * @return a key that changes whenever the set of classes, their class files
+	 *         (including nested classes) or the class file of Frog change.
+	 *         Other dependencies, e.g., the JDK, are assumed not to change.
+	 */
+	private static String sceneKey(List<ClassToVerify> tcs) {
+		Set<String> parts = new TreeSet<String>();
+		for (ClassToVerify tc : tcs) {
+			File classFile = tc.getClassFile().getAbsoluteFile();
+			parts.add("verify " + Server.stamp(classFile));
+			File[] nested = classFile.getParentFile().listFiles((dir, name) -> name.startsWith(tc.getName() + "$"));
+			if (nested != null) {
+				for (File f : nested) {
+					parts.add(Server.stamp(f));
+				}
+			}
+			File frog = new File(tc.getClassPath(), Constants.FrogClassName.replace(".", "/") + ".class");
+			parts.add(Server.stamp(frog.getAbsoluteFile()));
+		}
+
+		Hasher h = Hashing.sha256().newHasher();
+		for (String part : parts) {
+			h.putString(part, StandardCharsets.UTF_8).putChar('\n');
+		}
+		return h.hash().toString();
+	}
+
+	private static String stamp(File f) {
+		return f.getPath() + "@" + f.lastModified();
+	}
+
+	private void handleVerify(HttpExchange exchange) throws IOException {
+		long startTime = System.nanoTime();
+
+		int status;
+		String body;
+		try {
+			List<VerificationTask> tasks = Server.parseTasks(exchange.getRequestURI().getRawQuery());
+			StringBuilder sb = new StringBuilder();
+			for (Map.Entry<VerificationTask, VerificationResult> e : this.verify(tasks).entrySet()) {
+				VerificationTask t = e.getKey();
+				sb.append(t.getTestClass().getPackageName()).append(",").append(t.property).append(",")
+						.append(e.getValue().toString()).append("\n");
+			}
+			status = 200;
+			body = sb.toString();
+		} catch (IllegalArgumentException e) {
+			status = 400;
+			body = e.getMessage() + "\n";
+		} catch (RuntimeException e) {
+			logger.error("Verification failed", e);
+			status = 500;
+			body = e.toString() + "\n";
+		}
+
+		long endTime = System.nanoTime();
+		long durationMilliseconds = (endTime - startTime) / 1000000;
+		logger.info("Runtime: Answered {} in {}ms", exchange.getRequestURI(), durationMilliseconds);
+
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.getResponseHeaders().set("X-Verification-Time-Ms", Long.toString(durationMilliseconds));
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream os = exchange.getResponseBody()) {
+			os.write(bytes);
+		}
+	}
+
+	/**
+	 * 
+	 * @param query raw query string of a request
+	 * @return the tasks described by <code>query</code>
+	 */
+	private static List<VerificationTask> parseTasks(String query) throws UnsupportedEncodingException {
+		String classes = null;
+		String properties = "ALL";
+		if (query != null) {
+			for (String param : query.split("&")) {
+				int idx = param.indexOf('=');
+				if (idx < 0) {
+					continue;
+				}
+				String name = URLDecoder.decode(param.substring(0, idx), "UTF-8");
+				String value = URLDecoder.decode(param.substring(idx + 1), "UTF-8");
+				if (name.equals("class")) {
+					classes = value;
+				} else if (name.equals("property")) {
+					properties = value;
+				}
+			}
+		}
+		if (classes == null) {
+			throw new IllegalArgumentException("Missing parameter: class");
+		}
+
+		List<VerificationTask> tasks = new LinkedList<VerificationTask>();
+		for (String packageName : classes.split(",")) {
+			for (VerificationProperty property : Main.parseProperties(properties)) {
+				tasks.add(new VerificationTask(packageName.trim(), property));
+			}
+		}
+		return tasks;
+	}
+
+}
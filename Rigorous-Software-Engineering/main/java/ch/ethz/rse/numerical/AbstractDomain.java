@@ -0,0 +1,55 @@
+package ch.ethz.rse.numerical;
+
+import apron.Box;
+import apron.Manager;
+import apron.Octagon;
+import apron.Polka;
+
+/**
+ * Numerical abstract domains available for {@link NumericalAnalysis}, ordered
+ * from cheapest to most precise
+ */
+public enum AbstractDomain {
+	/**
+	 * Intervals
+	 */
+	BOX {
+		@Override
+		public Manager createManager() {
+			return new Box();
+		}
+	},
+	/**
+	 * Octagons (constraints of the form +-x +-y >= c)
+	 */
+	OCTAGON {
+		@Override
+		public Manager createManager() {
+			return new Octagon();
+		}
+	},
+	/**
+	 * Convex polyhedra, without strict inequalities
+	 */
+	POLKA {
+		@Override
+		public Manager createManager() {
+			return new Polka(false);
+		}
+	},
+	/**
+	 * Convex polyhedra, with strict inequalities
+	 */
+	POLKA_STRICT {
+		@Override
+		public Manager createManager() {
+			return new Polka(true);
+		}
+	};
+
+	/**
+	 * 
+	 * @return a fresh manager for this domain
+	 */
+	public abstract Manager createManager();
+}
@@ -1,13 +0,0 @@
-package ch.ethz.rse.numerical;
-
-/**
- * Utility class needed by numerical analysis.
- */
-public class IntegerWrapper {
-
-	public int value;
-
-	public IntegerWrapper(int v) {
-		value = v;
-	}
-}
\ No newline at end of file
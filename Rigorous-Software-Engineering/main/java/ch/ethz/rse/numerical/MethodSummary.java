@@ -0,0 +1,258 @@
+package ch.ethz.rse.numerical;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import apron.Abstract1;
+import apron.ApronException;
+import apron.Environment;
+import apron.Lincons1;
+import apron.Manager;
+import apron.Tcons1;
+import apron.Texpr1BinNode;
+import apron.Texpr1Intern;
+import apron.Texpr1Node;
+import apron.Texpr1VarNode;
+import soot.IntegerType;
+import soot.SootMethod;
+import soot.Type;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.IntConstant;
+import soot.jimple.internal.JReturnStmt;
+import soot.jimple.internal.JimpleLocal;
+
+/**
+ * Input/output relation of a method returning an integer: linear constraints
+ * between the values of its integer parameters on entry and its return value.
+ *
+ * Summaries do not refer to any Apron manager, so they can be applied by
+ * analyses in any domain and on any thread.
+ */
+public class MethodSummary {
+
+	/**
+	 * Variable holding the return value in {@link #constraints}
+	 */
+	public static final String RETURN = "#ret";
+
+	/**
+	 *
+	 * @param index
+	 * @return variable holding the entry value of the parameter at
+	 *         <code>index</code>
+	 */
+	public static String parameter(int index) {
+		return "#p" + index;
+	}
+
+	/**
+	 *
+	 * @param index
+	 * @return variable holding the argument at <code>index</code> while a
+	 *         summary is applied, distinct from {@link #parameter(int)} so that
+	 *         summaries can be applied while summarizing a caller
+	 */
+	private static String argument(int index) {
+		return "#a" + index;
+	}
+
+	private final SootMethod method;
+
+	/**
+	 * Environment of {@link #constraints}: {@link #RETURN} and the parameters
+	 * of integer type
+	 */
+	private final Environment env;
+
+	/**
+	 * The relation, or null if the method never returns
+	 */
+	private final Lincons1[] constraints;
+
+	private MethodSummary(SootMethod method, Environment env, Lincons1[] constraints) {
+		this.method = method;
+		this.env = env;
+		this.constraints = constraints;
+	}
+
+	/**
+	 *
+	 * @param method
+	 * @return the parameter variables of <code>method</code> (see
+	 *         {@link #parameter(int)}), one per parameter of integer type
+	 */
+	static String[] parameters(SootMethod method) {
+		List<String> ret = new ArrayList<String>();
+		for (int i = 0; i < method.getParameterCount(); i++) {
+			if (method.getParameterType(i) instanceof IntegerType) {
+				ret.add(MethodSummary.parameter(i));
+			}
+		}
+		return ret.toArray(new String[ret.size()]);
+	}
+
+	/**
+	 *
+	 * @param method
+	 * @return the environment of summaries of <code>method</code>
+	 */
+	static Environment environment(SootMethod method) {
+		return new Environment(MethodSummary.parameters(method), new String[0]).add(new String[] { RETURN },
+				new String[0]);
+	}
+
+	/**
+	 *
+	 * @param method
+	 * @return the summary of a method which never returns, the starting point
+	 *         of summarizing recursive methods
+	 */
+	static MethodSummary bottom(SootMethod method) {
+		return new MethodSummary(method, MethodSummary.environment(method), null);
+	}
+
+	/**
+	 *
+	 * @param method
+	 * @param man
+	 * @param relation relation over {@link #environment(SootMethod)}
+	 * @return the summary of <code>method</code> holding <code>relation</code>
+	 * @throws ApronException
+	 */
+	static MethodSummary of(SootMethod method, Manager man, Abstract1 relation) throws ApronException {
+		if (relation.isBottom(man)) {
+			return MethodSummary.bottom(method);
+		}
+		return new MethodSummary(method, MethodSummary.environment(method), relation.toLincons(man));
+	}
+
+	/**
+	 *
+	 * @param method
+	 * @return true if calls to <code>method</code> can be summarized
+	 */
+	static boolean returnsInteger(SootMethod method) {
+		Type t = method.getReturnType();
+		return t instanceof IntegerType;
+	}
+
+	/**
+	 * Joins the states before all return statements of <code>method</code>,
+	 * projected to the parameters and the returned value
+	 *
+	 * @param method
+	 * @param analysis analysis of <code>method</code> binding each parameter
+	 *                 local to its {@link #parameter(int)} on entry
+	 * @return the summary of <code>method</code>
+	 * @throws ApronException
+	 */
+	static MethodSummary of(SootMethod method, NumericalAnalysis analysis) throws ApronException {
+		Manager man = analysis.man;
+		Environment env = MethodSummary.environment(method);
+		Environment withReturn = analysis.env.add(new String[] { MethodSummary.RETURN }, new String[0]);
+
+		Abstract1 joined = new Abstract1(man, env, true);
+		for (Unit u : method.getActiveBody().getUnits()) {
+			if (!(u instanceof JReturnStmt)) {
+				continue;
+			}
+			Value op = ((JReturnStmt) u).getOp();
+			Abstract1 state = analysis.getFlowBefore(u).get().changeEnvironmentCopy(man, withReturn, false);
+			if (op instanceof IntConstant
+					|| (op instanceof JimpleLocal && analysis.env.hasVar(((JimpleLocal) op).getName()))) {
+				Texpr1Intern value = new Texpr1Intern(withReturn, NumericalAnalysis.convertValueToTexpr1Node(op));
+				state.assign(man, MethodSummary.RETURN, value, null);
+			}
+			joined.join(man, state.changeEnvironmentCopy(man, env, false));
+		}
+		return MethodSummary.of(method, man, joined);
+	}
+
+	/**
+	 *
+	 * @param man
+	 * @return the relation as an element of the domain of <code>man</code>
+	 * @throws ApronException
+	 */
+	Abstract1 toAbstract1(Manager man) throws ApronException {
+		if (this.constraints == null) {
+			return new Abstract1(man, this.env, true);
+		}
+		Abstract1 ret = new Abstract1(man, this.env);
+		ret.meet(man, this.constraints);
+		return ret;
+	}
+
+	/**
+	 *
+	 * @return the summarized method
+	 */
+	public SootMethod getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Applies this summary to a call <code>target = method(args)</code>
+	 *
+	 * @param man       manager of <code>state</code>
+	 * @param state     state before the call, not modified
+	 * @param callerEnv environment of <code>state</code>
+	 * @param target    variable of <code>callerEnv</code> receiving the result
+	 * @param args      arguments of the call
+	 * @return the state after the call
+	 * @throws ApronException
+	 */
+	public Abstract1 apply(Manager man, Abstract1 state, Environment callerEnv, String target, List<Value> args)
+			throws ApronException {
+		if (this.constraints == null) {
+			return new Abstract1(man, callerEnv, true);
+		}
+
+		// the relation, over variables not occurring in callerEnv
+		Abstract1 relation = this.toAbstract1(man);
+		List<String> parameters = new ArrayList<String>();
+		List<String> arguments = new ArrayList<String>();
+		for (int i = 0; i < args.size(); i++) {
+			if (this.env.hasVar(MethodSummary.parameter(i))) {
+				parameters.add(MethodSummary.parameter(i));
+				arguments.add(MethodSummary.argument(i));
+			}
+		}
+		String[] fresh = arguments.toArray(new String[arguments.size() + 1]);
+		fresh[arguments.size()] = MethodSummary.RETURN;
+		relation.rename(man, parameters.toArray(new String[parameters.size()]),
+				arguments.toArray(new String[arguments.size()]));
+
+		Environment callEnv = callerEnv.add(fresh, new String[0]);
+		Abstract1 ret = state.changeEnvironmentCopy(man, callEnv, false);
+		ret.meet(man, relation.changeEnvironmentCopy(man, callEnv, false));
+
+		// bind arguments we track
+		for (int i = 0; i < args.size(); i++) {
+			Value arg = args.get(i);
+			if (!callEnv.hasVar(MethodSummary.argument(i)) || !(arg instanceof IntConstant
+					|| (arg instanceof JimpleLocal && callerEnv.hasVar(((JimpleLocal) arg).getName())))) {
+				continue;
+			}
+			Texpr1Node diff = new Texpr1BinNode(Texpr1BinNode.OP_SUB, new Texpr1VarNode(MethodSummary.argument(i)),
+					NumericalAnalysis.convertValueToTexpr1Node(arg));
+			ret.meet(man, new Tcons1(callEnv, Tcons1.EQ, diff));
+		}
+
+		ret.assign(man, target, new Texpr1Intern(callEnv, new Texpr1VarNode(MethodSummary.RETURN)), null);
+		return ret.changeEnvironmentCopy(man, callerEnv, false);
+	}
+
+	@Override
+	public String toString() {
+		if (this.constraints == null) {
+			return this.method.getName() + ": <Bottom>";
+		}
+		List<String> ret = new ArrayList<String>();
+		for (Lincons1 c : this.constraints) {
+			ret.add(c.toString());
+		}
+		return this.method.getName() + ": " + ret;
+	}
+}
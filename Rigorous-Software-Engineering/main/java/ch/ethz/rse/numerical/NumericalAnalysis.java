@@ -1,8 +1,11 @@
 package ch.ethz.rse.numerical;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.slf4j.Logger;
@@ -11,6 +14,8 @@ import org.slf4j.LoggerFactory;
 import apron.Abstract1;
 import apron.ApronException;
 import apron.Environment;
+import apron.Lincons1;
+import apron.Linexpr1;
 import apron.Manager;
 import apron.MpqScalar;
 import apron.Polka;
@@ -21,11 +26,15 @@ import apron.Texpr1Intern;
 import apron.Texpr1Node;
 import apron.Texpr1UnNode;
 import apron.Texpr1VarNode;
+import apron.Var;
 import ch.ethz.rse.VerificationProperty;
 import ch.ethz.rse.pointer.FrogInitializer;
+import ch.ethz.rse.pointer.InitializerSet;
 import ch.ethz.rse.pointer.PointsToInitializer;
+import ch.ethz.rse.utils.Configuration;
 import ch.ethz.rse.utils.Constants;
 import ch.ethz.rse.verify.EnvironmentGenerator;
+import ch.ethz.rse.verify.VariablePacker;
 import soot.ArrayType;
 import soot.DoubleType;
 import soot.Local;
@@ -33,6 +42,7 @@ import soot.RefType;
 import soot.SootHelper;
 import soot.SootMethod;
 import soot.Unit;
+import soot.UnitBox;
 import soot.Value;
 import soot.Body;
 import soot.jimple.AddExpr;
@@ -62,8 +72,8 @@ import soot.jimple.internal.JLeExpr;
 import soot.jimple.internal.JLtExpr;
 import soot.jimple.internal.JMulExpr;
 import soot.jimple.internal.JNeExpr;
+import soot.jimple.internal.JReturnStmt;
 import soot.jimple.internal.JReturnVoidStmt;
-import soot.jimple.internal.JSpecialInvokeExpr;
 import soot.jimple.internal.JSubExpr;
 import soot.jimple.internal.JVirtualInvokeExpr;
 import soot.jimple.internal.JimpleLocal;
@@ -71,6 +81,7 @@ import soot.jimple.toolkits.annotation.logic.Loop;
 import soot.toolkits.graph.LoopNestTree;
 import soot.toolkits.graph.UnitGraph;
 import soot.toolkits.scalar.ForwardBranchedFlowAnalysis;
+import soot.toolkits.scalar.SimpleLiveLocals;
 import soot.util.Chain;
 
 /**
@@ -93,45 +104,210 @@ public class NumericalAnalysis extends ForwardBranchedFlowAnalysis<NumericalStat
 	private final PointsToInitializer pointsTo;
 
 	/**
-	 * number of times this loop head was encountered during analysis
+	 * Units of the analyzed body, numbered densely in the order of the body's
+	 * unit chain. The arrays below are indexed by these numbers, so that each
+	 * merge needs a single lookup in {@link #unitIndex}.
 	 */
-	private HashMap<Unit, IntegerWrapper> loopHeads = new HashMap<Unit, IntegerWrapper>();
+	private final HashMap<Unit, Integer> unitIndex = new HashMap<Unit, Integer>();
+	private final Unit[] units;
+
+	/**
+	 * number of times this loop head was encountered during analysis, or -1 for
+	 * units which are not loop heads
+	 */
+	private final int[] loopHeads;
 	/**
-	 * Previously seen abstract state for each loop head
+	 * Previously seen abstract state for each merge point
 	 */
-	private HashMap<Unit, NumericalStateWrapper> loopHeadState = new HashMap<Unit, NumericalStateWrapper>();
+	private final NumericalStateWrapper[] loopHeadState;
 
 	/**
-	 * Numerical abstract domain to use for analysis: Convex polyhedra
+	 * Numerical abstract domain to use for analysis
 	 */
-	public final Manager man = new Polka(true);
+	public final AbstractDomain domain;
+
+	/**
+	 * Manager of {@link #domain}
+	 */
+	public final Manager man;
 
 	public Environment env;
 
 	/**
-	 * We apply widening after updating the state at a given merge point for the
-	 * {@link WIDENING_THRESHOLD}th time
+	 * true if {@link #env} tracks overall_profit
+	 */
+	private final boolean trackProfit;
+
+	/**
+	 * Summaries of called methods, or null if calls are not summarized (see
+	 * {@link Configuration#isInterproceduralEnabled()})
 	 */
-	private static final int WIDENING_THRESHOLD = 6;
+	private final SummaryTable summaries;
+
+	/**
+	 * true if this analysis computes a {@link MethodSummary}: each integer
+	 * parameter local is then bound to its {@link MethodSummary#parameter(int)}
+	 * on entry
+	 */
+	private final boolean summarize;
+
+	/**
+	 * Variables of {@link #env} that no later statement reads, for each unit that
+	 * has some. Null if liveness projection is disabled.
+	 */
+	private final HashMap<Unit, String[]> deadAfter;
+
+	/**
+	 * Iteration order of the fixpoint, or null to use Soot's worklist
+	 */
+	private final WeakTopologicalOrder wto;
+
+	/**
+	 * States flowing into each unit, used when iterating {@link #wto}
+	 */
+	private Map<Unit, List<NumericalStateWrapper>> incoming;
+
+	/**
+	 * Apron constraints (true branch, false branch) compiled from each if
+	 * statement. Units do not change during the analysis and {@link #env} is
+	 * fixed, so they are compiled once, on the first visit.
+	 */
+	private final HashMap<Unit, Tcons1[]> conditions = new HashMap<Unit, Tcons1[]>();
+
+	/**
+	 * Apron expressions compiled from the right-hand side of each assignment
+	 */
+	private final HashMap<Unit, Texpr1Intern> assignments = new HashMap<Unit, Texpr1Intern>();
+
+	/**
+	 * Apron expressions compiled from each call to sell: the copy of
+	 * overall_profit and its update
+	 */
+	private final HashMap<Unit, Texpr1Intern[]> sells = new HashMap<Unit, Texpr1Intern[]>();
+
+	// STATISTICS (see VerificationMetrics)
+
+	private long flowThroughCount = 0;
+
+	private long mergeCount = 0;
 
 	/**
+	 * number of times widening was applied at each loop head
+	 */
+	private final int[] wideningCount;
+
+	/**
+	 * time spent in Apron joins, meets and assignments
+	 */
+	private long joinNanos = 0;
+	private long meetNanos = 0;
+	private long assignNanos = 0;
+
+	/**
+	 * We apply widening at a loop head after updating its state for the
+	 * n-th time, where n is the head's entry in this array (see
+	 * {@link Configuration#getWideningThreshold()} and
+	 * {@link Configuration#getWideningDepthDelay()})
+	 */
+	private final int[] wideningDelay;
+
+	/**
+	 * Constraints preserved by widening (see
+	 * {@link Configuration#isWideningWithThresholdsEnabled()}), or null
+	 */
+	private final Lincons1[] wideningThresholds;
+
+	/**
+	 * number of descending iterations after each component stabilized
+	 */
+	private final int narrowingIterations;
+
+	/**
+	 * true during descending iterations, in which merges join without widening
+	 */
+	private boolean narrowing = false;
+
+	/**
+	 * Analyze using convex polyhedra
 	 * 
 	 * @param method   method to analyze
 	 * @param property the property we are verifying
 	 */
 	public NumericalAnalysis(SootMethod method, VerificationProperty property, PointsToInitializer pointsTo) {
+		this(method, property, pointsTo, AbstractDomain.POLKA_STRICT);
+	}
+
+	/**
+	 * 
+	 * @param method   method to analyze
+	 * @param property the property we are verifying
+	 * @param domain   numerical abstract domain to use
+	 */
+	public NumericalAnalysis(SootMethod method, VerificationProperty property, PointsToInitializer pointsTo,
+			AbstractDomain domain) {
+		this(method, property, pointsTo, domain, null);
+	}
+
+	/**
+	 * 
+	 * @param method   method to analyze
+	 * @param property the property we are verifying
+	 * @param domain   numerical abstract domain to use
+	 * @param pack     variables to track (see {@link VariablePacker}), or null to
+	 *                 track all integer variables. Statements on other variables
+	 *                 are ignored.
+	 */
+	public NumericalAnalysis(SootMethod method, VerificationProperty property, PointsToInitializer pointsTo,
+			AbstractDomain domain, Set<String> pack) {
+		this(method, property, pointsTo, domain, pack, null);
+	}
+
+	/**
+	 * 
+	 * @param method    method to analyze
+	 * @param property  the property we are verifying
+	 * @param domain    numerical abstract domain to use
+	 * @param pack      variables to track (see {@link VariablePacker}), or null
+	 *                  to track all integer variables. Statements on other
+	 *                  variables are ignored.
+	 * @param summaries summaries of called methods, or null to leave the results
+	 *                  of calls unconstrained
+	 */
+	public NumericalAnalysis(SootMethod method, VerificationProperty property, PointsToInitializer pointsTo,
+			AbstractDomain domain, Set<String> pack, SummaryTable summaries) {
+		this(method, property, pointsTo, domain, pack, summaries, false);
+	}
+
+	/**
+	 * 
+	 * @param summarize true to bind parameters for {@link MethodSummary#of}
+	 */
+	NumericalAnalysis(SootMethod method, VerificationProperty property, PointsToInitializer pointsTo,
+			AbstractDomain domain, Set<String> pack, SummaryTable summaries, boolean summarize) {
 		super(SootHelper.getUnitGraph(method));
 
+		this.domain = domain;
+		this.man = domain.createManager();
+
 		this.property = property;
 
 		this.pointsTo = pointsTo;
 		
 		this.method = method;
 
-		this.env = new EnvironmentGenerator(method, pointsTo).getEnvironment();
+		this.env = new EnvironmentGenerator(method, pointsTo, pack).getEnvironment();
+
+		this.summaries = summaries;
+		this.summarize = summarize;
+		if (summarize) {
+			this.env = this.env.add(MethodSummary.parameters(method), new String[0]);
+		}
+
+		this.trackProfit = this.property == VerificationProperty.OVERALL_PROFIT
+				&& (pack == null || pack.contains(VariablePacker.OVERALL_PROFIT));
 
 		// This if statement is not part of the skeleton
-		if(this.property == VerificationProperty.OVERALL_PROFIT){
+		if(this.trackProfit){
 			String[] integer_new = { "overall_profit", "overall_profit_2" };
         	String[] real_new = {};
 			this.env = this.env.add(integer_new, real_new);
@@ -145,14 +321,72 @@ public class NumericalAnalysis extends ForwardBranchedFlowAnalysis<NumericalStat
 
 		UnitGraph g = SootHelper.getUnitGraph(method);
 
-		// initialize counts for loop heads
-		for (Loop l : new LoopNestTree(g.getBody())) {
-			loopHeads.put(l.getHead(), new IntegerWrapper(0));
+		if (Configuration.props.isLivenessProjectionEnabled()) {
+			this.deadAfter = this.computeDeadVariables(g);
+		} else {
+			this.deadAfter = null;
+		}
+
+		// number units densely
+		this.units = g.getBody().getUnits().toArray(new Unit[0]);
+		for (int i = 0; i < this.units.length; i++) {
+			this.unitIndex.put(this.units[i], i);
+		}
+		this.loopHeads = new int[this.units.length];
+		Arrays.fill(this.loopHeads, -1);
+		this.loopHeadState = new NumericalStateWrapper[this.units.length];
+		this.wideningCount = new int[this.units.length];
+		this.wideningDelay = new int[this.units.length];
+
+		// initialize counts and widening delays for loop heads
+		int threshold = Configuration.props.getWideningThreshold();
+		int depthDelay = Configuration.props.getWideningDepthDelay();
+		if (Configuration.props.isWeakTopologicalOrderEnabled()) {
+			// widen at component heads only
+			this.wto = new WeakTopologicalOrder(g);
+			for (Unit head : this.wto.getComponentHeads()) {
+				int index = this.unitIndex.get(head);
+				loopHeads[index] = 0;
+				wideningDelay[index] = threshold + depthDelay * (this.wto.getDepth(head) - 1);
+			}
+		} else {
+			this.wto = null;
+			LoopNestTree loops = new LoopNestTree(g.getBody());
+			for (Loop l : loops) {
+				int index = this.unitIndex.get(l.getHead());
+				loopHeads[index] = 0;
+				int depth = 0;
+				for (Loop outer : loops) {
+					if (outer.getLoopStatements().contains(l.getHead())) {
+						depth++;
+					}
+				}
+				wideningDelay[index] = threshold + depthDelay * (depth - 1);
+			}
+		}
+
+		if (Configuration.props.isWideningWithThresholdsEnabled()) {
+			this.wideningThresholds = this.collectWideningThresholds(g);
+		} else {
+			this.wideningThresholds = null;
+		}
+
+		this.narrowingIterations = Configuration.props.getNarrowingIterations();
+		if (this.narrowingIterations > 0 && this.wto == null) {
+			logger.warn("Narrowing requires FIXPOINT_STRATEGY=WTO, ignoring NARROWING_ITERATIONS");
 		}
 
 		// perform analysis by calling into super-class
 		logger.info("Analyzing {} in {}", method.getName(), method.getDeclaringClass().getName());
 		doAnalysis(); // calls newInitialFlow, entryInitialFlow, merge, flowThrough, and stops when a fixed point is reached
+		if (Configuration.props.isStateInterningEnabled()) {
+			this.internStates();
+		}
+		if (logger.isDebugEnabled()) {
+			for (Map.Entry<Unit, Integer> e : this.getIterationCount().entrySet()) {
+				logger.debug("Loop head {} converged after {} iterations", e.getKey(), e.getValue());
+			}
+		}
 	}
 
 	/**
@@ -178,6 +412,149 @@ public class NumericalAnalysis extends ForwardBranchedFlowAnalysis<NumericalStat
 		}
 	}
 
+	/**
+	 * Lets equal states before and after all units share a single Apron
+	 * element (see {@link NumericalStateWrapper#intern(Map)}). Runs once on the
+	 * final states, so that intermediate iterates are neither hashed nor kept
+	 * alive: it only reduces the memory retained by the results of the
+	 * analysis, not during the fixpoint computation.
+	 */
+	private void internStates() {
+		Map<NumericalStateWrapper, NumericalStateWrapper> table = new HashMap<NumericalStateWrapper, NumericalStateWrapper>();
+		for (Unit s : this.graph) {
+			this.unitToBeforeFlow.get(s).intern(table);
+			for (NumericalStateWrapper out : this.unitToAfterFallFlow.get(s)) {
+				out.intern(table);
+			}
+			for (NumericalStateWrapper out : this.unitToAfterBranchFlow.get(s)) {
+				out.intern(table);
+			}
+		}
+	}
+
+	@Override
+	protected void doAnalysis() {
+		if (this.wto == null) {
+			super.doAnalysis();
+			return;
+		}
+
+		// allocate the states before and after each unit, connecting the states
+		// after a unit to its successors
+		UnitGraph g = (UnitGraph) this.graph;
+		Chain<Unit> units = g.getBody().getUnits();
+		this.incoming = new HashMap<Unit, List<NumericalStateWrapper>>();
+		for (Unit s : g) {
+			this.incoming.put(s, new ArrayList<NumericalStateWrapper>());
+		}
+		for (Unit s : g) {
+			this.unitToBeforeFlow.put(s, this.newInitialFlow());
+
+			List<NumericalStateWrapper> fallOut = new ArrayList<NumericalStateWrapper>();
+			Unit next = units.getSuccOf(s);
+			if (s.fallsThrough() && next != null) {
+				NumericalStateWrapper out = this.newInitialFlow();
+				fallOut.add(out);
+				this.incoming.get(next).add(out);
+			}
+			this.unitToAfterFallFlow.put(s, fallOut);
+
+			List<NumericalStateWrapper> branchOut = new ArrayList<NumericalStateWrapper>();
+			if (s.branches()) {
+				for (UnitBox target : s.getUnitBoxes()) {
+					NumericalStateWrapper out = this.newInitialFlow();
+					branchOut.add(out);
+					this.incoming.get(target.getUnit()).add(out);
+				}
+			}
+			this.unitToAfterBranchFlow.put(s, branchOut);
+		}
+
+		for (WeakTopologicalOrder.Element element : this.wto.getElements()) {
+			this.iterate(element);
+		}
+		this.incoming = null;
+	}
+
+	/**
+	 * Recursive iteration strategy: a component is iterated until the state at
+	 * its head is stable, stabilizing nested components on each iteration
+	 * 
+	 * @param element
+	 */
+	private void iterate(WeakTopologicalOrder.Element element) {
+		if (!element.isComponent()) {
+			this.process(element.head);
+			return;
+		}
+		NumericalStateWrapper previous = null;
+		while (true) {
+			this.process(element.head);
+			NumericalStateWrapper current = this.unitToBeforeFlow.get(element.head);
+			if (previous != null && current.equals(previous)) {
+				if (this.narrowingIterations > 0) {
+					this.narrow(element);
+				}
+				return;
+			}
+			previous = current.copy();
+			for (WeakTopologicalOrder.Element inner : element.body) {
+				this.iterate(inner);
+			}
+		}
+	}
+
+	/**
+	 * Descending iterations on a stabilized component: starting from a
+	 * post-fixpoint, each pass without widening yields a smaller post-fixpoint.
+	 * Nested components are passed over once per pass, so this terminates.
+	 * 
+	 * @param element a stabilized component
+	 */
+	private void narrow(WeakTopologicalOrder.Element element) {
+		boolean wasNarrowing = this.narrowing;
+		this.narrowing = true;
+		for (int i = 0; i < this.narrowingIterations; i++) {
+			this.pass(element);
+		}
+		this.narrowing = wasNarrowing;
+	}
+
+	private void pass(WeakTopologicalOrder.Element element) {
+		this.process(element.head);
+		if (element.isComponent()) {
+			for (WeakTopologicalOrder.Element inner : element.body) {
+				this.pass(inner);
+			}
+		}
+	}
+
+	/**
+	 * Joins the states flowing into <code>s</code> and applies its transfer
+	 * function
+	 * 
+	 * @param s
+	 */
+	private void process(Unit s) {
+		NumericalStateWrapper before = this.unitToBeforeFlow.get(s);
+		boolean first = true;
+		if (this.graph.getHeads().contains(s)) {
+			this.copy(this.entryInitialFlow(), before);
+			first = false;
+		}
+		for (NumericalStateWrapper in : this.incoming.get(s)) {
+			if (first) {
+				this.copy(in, before);
+				first = false;
+			} else {
+				NumericalStateWrapper merged = this.newInitialFlow();
+				this.merge(s, before, in, merged);
+				this.copy(merged, before);
+			}
+		}
+		this.flowThrough(before, s, this.unitToAfterFallFlow.get(s), this.unitToAfterBranchFlow.get(s));
+	}
+
 	@Override
 	protected void copy(NumericalStateWrapper source, NumericalStateWrapper dest) {
 		source.copyInto(dest);
@@ -194,7 +571,7 @@ public class NumericalAnalysis extends ForwardBranchedFlowAnalysis<NumericalStat
 		// state of entry points into function
 		NumericalStateWrapper ret = NumericalStateWrapper.top(man, env);
 
-		if(this.property == VerificationProperty.OVERALL_PROFIT){
+		if(this.trackProfit){
 			Texpr1Node zeroNode = new Texpr1CstNode(new MpqScalar(0));
 			Texpr1Intern zeroExpr = new Texpr1Intern(env, zeroNode);
 			Abstract1 absTop = ret.get();
@@ -214,35 +591,52 @@ public class NumericalAnalysis extends ForwardBranchedFlowAnalysis<NumericalStat
 	@Override
 	protected void merge(Unit succNode, NumericalStateWrapper w1, NumericalStateWrapper w2, NumericalStateWrapper w3) {
 		logger.debug("Merging for Node: " + succNode);
+		this.mergeCount++;
 		try {
 			Abstract1 state1 = w1.get();
 			Abstract1 state2 = w2.get();
+			long startTime = System.nanoTime();
 			Abstract1 merged_state = state1.joinCopy(man, state2);
+			this.joinNanos += System.nanoTime() - startTime;
 			NumericalStateWrapper temp = new NumericalStateWrapper(man, merged_state);
-			if (!loopHeadState.containsKey(succNode)) {
-				loopHeadState.put(succNode, temp);
+			if (this.narrowing) {
+				// descending iteration: plain join
+				temp.copyInto(w3);
+				return;
+			}
+			Integer index = this.unitIndex.get(succNode);
+			if (index == null) {
+				// not a unit of the analyzed body: no loop head bookkeeping
+				temp.copyInto(w3);
+				return;
+			}
+			if (loopHeadState[index] == null) {
+				loopHeadState[index] = temp;
 			}
 
-			Abstract1 old_state = loopHeadState.get(succNode).get();
-			w3.set(merged_state);  
+			Abstract1 old_state = loopHeadState[index].get();
+			temp.copyInto(w3);
 
-			if (loopHeads.containsKey(succNode)) {
-				int count = loopHeads.get(succNode).value;
-				count++;
-				loopHeads.get(succNode).value = count;
+			if (loopHeads[index] >= 0) {
+				int count = ++loopHeads[index];
 				
-				if (count >= WIDENING_THRESHOLD) {
+				if (count >= wideningDelay[index]) {
+					this.wideningCount[index]++;
 		
+					startTime = System.nanoTime();
 					Abstract1 joined_state = merged_state.joinCopy(man, old_state);
-					Abstract1 widened_state = old_state.widening(man, joined_state);
+					this.joinNanos += System.nanoTime() - startTime;
+					Abstract1 widened_state;
+					if (this.wideningThresholds != null) {
+						widened_state = old_state.wideningThreshold(man, joined_state, this.wideningThresholds);
+					} else {
+						widened_state = old_state.widening(man, joined_state);
+					}
 					NumericalStateWrapper temp2 =  new NumericalStateWrapper(man, widened_state);
-					loopHeadState.put(succNode, temp2);
-					w3.set(widened_state);
+					loopHeadState[index] = temp2;
+					temp2.copyInto(w3);
 				}
 			}
-			else {
-				return;
-			}
 		} catch (ApronException e) {
 			e.printStackTrace();
 		}
@@ -257,7 +651,10 @@ public class NumericalAnalysis extends ForwardBranchedFlowAnalysis<NumericalStat
 	@Override
 	protected void flowThrough(NumericalStateWrapper inWrapper, Unit op, List<NumericalStateWrapper> fallOutWrappers,
 			List<NumericalStateWrapper> branchOutWrappers) {
-		logger.debug(inWrapper + " " + op + " => ?");
+		if (logger.isDebugEnabled()) {
+			logger.debug(inWrapper + " " + op + " => ?");
+		}
+		this.flowThroughCount++;
 
 		Stmt s = (Stmt) op;
 
@@ -309,78 +706,65 @@ public class NumericalAnalysis extends ForwardBranchedFlowAnalysis<NumericalStat
 				if (left.getType() instanceof RefType) {
 					// assignments to references are handled by pointer analysis
 					// no action necessary
+				} else if (right instanceof InvokeExpr) {
+					handleCall(fallOutWrapper, s, left, (InvokeExpr) right);
 				} else {
 					// handle assignment
-					handleDef(fallOutWrapper, left, right);
+					handleDef(fallOutWrapper, s, left, right);
 				}
 
+			} else if (s instanceof JIfStmt && !this.isTracked((JIfStmt) s)) {
+				// condition on variables of another pack: no constraint
 			} else if (s instanceof JIfStmt) {
 				// handle if
-				JIfStmt ifStmt = (JIfStmt) s;
-				Value condition = ifStmt.getCondition();
-				ConditionExpr condition_expression = (ConditionExpr) condition;
-				Value op1 = condition_expression.getOp1();
-				Value op2 = condition_expression.getOp2();
-				Texpr1Node op1_node = convertValueToTexpr1Node(op1);
-				Texpr1Node op2_node = convertValueToTexpr1Node(op2);
-				// Now we want to encode op1 - op2
-				Texpr1Node subop1op2 = new Texpr1BinNode(Texpr1BinNode.OP_SUB, op1_node, op2_node);
-
-				// Create the appropriate constraint
-				Tcons1 trueConstraint = null;
-				Tcons1 falseConstraint = null;
-				if (condition_expression instanceof JEqExpr) {
-					trueConstraint = new Tcons1(env, Tcons1.EQ, subop1op2);
-					falseConstraint = new Tcons1(env, Tcons1.DISEQ, subop1op2);
-				} else if (condition_expression instanceof JGeExpr) {
-					trueConstraint = new Tcons1(env, Tcons1.SUPEQ, subop1op2);
-					falseConstraint = new Tcons1(env, Tcons1.SUP, new Texpr1UnNode(Texpr1UnNode.OP_NEG, subop1op2));
-				} else if (condition_expression instanceof JGtExpr) {
-					trueConstraint = new Tcons1(env, Tcons1.SUP, subop1op2);
-					falseConstraint = new Tcons1(env, Tcons1.SUPEQ, new Texpr1UnNode(Texpr1UnNode.OP_NEG, subop1op2));
-				} else if (condition_expression instanceof JLeExpr) {
-					trueConstraint = new Tcons1(env, Tcons1.SUPEQ, new Texpr1UnNode(Texpr1UnNode.OP_NEG, subop1op2));
-					falseConstraint = new Tcons1(env, Tcons1.SUP, subop1op2);
-				} else if (condition_expression instanceof JLtExpr) {
-					trueConstraint = new Tcons1(env, Tcons1.SUP, new Texpr1UnNode(Texpr1UnNode.OP_NEG, subop1op2));
-					falseConstraint = new Tcons1(env, Tcons1.SUPEQ, subop1op2);
-				} else if (condition_expression instanceof JNeExpr) {
-					trueConstraint = new Tcons1(env, Tcons1.DISEQ, subop1op2);
-					falseConstraint = new Tcons1(env, Tcons1.EQ, subop1op2);
-				} else {
-					logger.debug("Illegal if statement");
-				}
+				Tcons1[] constraints = this.conditions.computeIfAbsent(s, u -> this.compileCondition((JIfStmt) u));
+				Tcons1 trueConstraint = constraints[0];
+				Tcons1 falseConstraint = constraints[1];
 
 				// Apply the constraints to the respective states
+				long startTime = System.nanoTime();
 				if (trueConstraint != null && branchOutWrapper != null) {
-					branchOutWrapper.get().meet(man, trueConstraint);
+					branchOutWrapper.meet(trueConstraint);
 				}
 				if (falseConstraint != null && fallOutWrapper != null) {
-					fallOutWrapper.get().meet(man, falseConstraint);
+					fallOutWrapper.meet(falseConstraint);
 				}
+				this.meetNanos += System.nanoTime() - startTime;
 
 
 			} else if (s instanceof JInvokeStmt) {
 				// handle invocations
 				JInvokeStmt jInvStmt = (JInvokeStmt) s;
 				InvokeExpr invokeExpr = jInvStmt.getInvokeExpr();
-				if (invokeExpr instanceof JVirtualInvokeExpr) {
+				if (SootHelper.isSellCall(invokeExpr)) {
 					handleInvoke(jInvStmt, fallOutWrapper);
-				} else if (invokeExpr instanceof JSpecialInvokeExpr) {
-					// ignoring this
 				} else {
-					unhandled("Unhandled invoke statement", invokeExpr, true);
+					// integers are passed by value and fields are not tracked, so
+					// other calls cannot change the tracked variables
 				}
 			} else if (s instanceof JGotoStmt) {
 				// safe to ignore
 			} else if (s instanceof JReturnVoidStmt) {
 				// safe to ignore
+			} else if (s instanceof JReturnStmt) {
+				// the returned value is read by MethodSummary.of
 			} else if (s instanceof NopStmt){
 				// safe to ignore
 			} else {
 				unhandled("Unhandled statement", s, true);
 			}
 
+			// forget variables that are dead from here on
+			String[] dead = this.deadAfter == null ? null : this.deadAfter.get(s);
+			if (dead != null) {
+				if (fallOutWrapper != null) {
+					fallOutWrapper.forget(dead);
+				}
+				if (branchOutWrapper != null) {
+					branchOutWrapper.forget(dead);
+				}
+			}
+
 			// log outcome
 			if (fallOutWrapper != null) {
 				logger.debug(inWrapper.get() + " " + s + " =>[fallout] " + fallOutWrapper);
@@ -410,69 +794,327 @@ public class NumericalAnalysis extends ForwardBranchedFlowAnalysis<NumericalStat
     }
 
 	public void handleInvoke(JInvokeStmt jInvStmt, NumericalStateWrapper fallOutWrapper) throws ApronException {
-		if (this.property == VerificationProperty.OVERALL_PROFIT) {
+		if (this.trackProfit) {
 			if (fallOutWrapper.get().isBottom(man)) {
 				// means that this state/ expression can't really be reached
 				return;
 			}
 
-			// Get the invoke expression
-			InvokeExpr invokeExpr = jInvStmt.getInvokeExpr();
-			JVirtualInvokeExpr sellExpr = (JVirtualInvokeExpr)invokeExpr;
-			// Get the base of the invoke expression
-			Local baseNode = (Local) sellExpr.getBase();
-			// Get the method name
-			//Get all the initilzisers the baseNode might point to
-			List<FrogInitializer> frogInitializers = pointsTo.pointsTo(baseNode);
-
-			// Find the worst case production cost frog, i.e. the frog with the highest production cost
-			FrogInitializer maxFrog = null;
-			for (FrogInitializer frogInitializer : frogInitializers) {
-				if (maxFrog == null || frogInitializer.argument > maxFrog.argument) {
-					maxFrog = frogInitializer;
-				}
+			Texpr1Intern[] expressions = this.sells.computeIfAbsent(jInvStmt, u -> this.compileSell((JInvokeStmt) u));
+			long startTime = System.nanoTime();
+			fallOutWrapper.assign("overall_profit_2", expressions[0]);
+			fallOutWrapper.assign("overall_profit", expressions[1]);
+			this.assignNanos += System.nanoTime() - startTime;
+			if (logger.isDebugEnabled()) {
+				logger.debug("handleInvoke: Interval of overall_profit: {}", fallOutWrapper.get().getBound(man, "overall_profit").toString());
 			}
-			Abstract1 currentState = fallOutWrapper.get();
-			Value priceValue = sellExpr.getArg(0);
-			IntConstant max_frog_production_cost = IntConstant.v(maxFrog.argument);
-			String leftName = "overall_profit";
-			Texpr1Node subExpressionNode = valueToTexpr1Node(new JSubExpr(priceValue, max_frog_production_cost));
-			Texpr1Node overallProfitNode = new Texpr1VarNode("overall_profit");
-			Texpr1Intern overallProfitIntern = new Texpr1Intern(env, overallProfitNode);
-			currentState.assign(man, "overall_profit_2", overallProfitIntern, null);
+		}
+	}
 
-			Texpr1Node overallProfitNode2 = new Texpr1VarNode("overall_profit_2");
-			Texpr1Node addNode = new Texpr1BinNode(Texpr1BinNode.OP_ADD, Texpr1BinNode.RTYPE_INT, Texpr1BinNode.RDIR_ZERO, subExpressionNode, overallProfitNode2);
-			Texpr1Intern rightExpression = new Texpr1Intern(env, addNode);
-			currentState.assign(man, leftName, rightExpression, null);
-			logger.debug("handleInvoke: Interval of overall_profit: {}", currentState.getBound(man, "overall_profit").toString());
+	/**
+	 * 
+	 * @param jInvStmt call to sell
+	 * @return the expressions saving overall_profit to overall_profit_2, and
+	 *         updating overall_profit by the worst-case profit of the call
+	 */
+	private Texpr1Intern[] compileSell(JInvokeStmt jInvStmt) {
+		// Get the invoke expression
+		InvokeExpr invokeExpr = jInvStmt.getInvokeExpr();
+		JVirtualInvokeExpr sellExpr = (JVirtualInvokeExpr)invokeExpr;
+		// Get the base of the invoke expression
+		Local baseNode = (Local) sellExpr.getBase();
+		// Get the method name
+		//Get all the initilzisers the baseNode might point to
+		InitializerSet frogInitializers = pointsTo.pointsTo(baseNode);
 
-			fallOutWrapper.set(currentState);
+		// Find the worst case production cost frog, i.e. the frog with the highest production cost
+		FrogInitializer maxFrog = null;
+		for (int i = 0; i < frogInitializers.size(); i++) {
+			FrogInitializer frogInitializer = frogInitializers.get(i);
+			if (maxFrog == null || frogInitializer.argument > maxFrog.argument) {
+				maxFrog = frogInitializer;
+			}
 		}
+		Value priceValue = sellExpr.getArg(0);
+		IntConstant max_frog_production_cost = IntConstant.v(maxFrog.argument);
+		Texpr1Node subExpressionNode = valueToTexpr1Node(new JSubExpr(priceValue, max_frog_production_cost));
+		Texpr1Node overallProfitNode = new Texpr1VarNode("overall_profit");
+		Texpr1Intern overallProfitIntern = new Texpr1Intern(env, overallProfitNode);
+
+		Texpr1Node overallProfitNode2 = new Texpr1VarNode("overall_profit_2");
+		Texpr1Node addNode = new Texpr1BinNode(Texpr1BinNode.OP_ADD, Texpr1BinNode.RTYPE_INT, Texpr1BinNode.RDIR_ZERO, subExpressionNode, overallProfitNode2);
+		Texpr1Intern rightExpression = new Texpr1Intern(env, addNode);
+		return new Texpr1Intern[] { overallProfitIntern, rightExpression };
 	}
 
 	// returns state of in after assignment
-	private void handleDef(NumericalStateWrapper outWrapper, Value left, Value right) throws ApronException {
+	private void handleDef(NumericalStateWrapper outWrapper, Unit s, Value left, Value right) throws ApronException {
 		if (right instanceof ParameterRef) {
+			String parameter = MethodSummary.parameter(((ParameterRef) right).getIndex());
+			String leftName = ((JimpleLocal) left).getName();
+			if (this.summarize && this.env.hasVar(parameter) && this.env.hasVar(leftName)) {
+				// remember the entry value
+				outWrapper.assign(leftName, new Texpr1Intern(env, new Texpr1VarNode(parameter)));
+			}
 			return;
 		}
-		// Retrieve the current abstract state.
-		Abstract1 currentState = outWrapper.get();
 
 		// Get the name of the left value, assuming it is a JimpleLocal.
 		String leftName = ((JimpleLocal) left).getName();
+		if (!this.env.hasVar(leftName)) {
+			// variable of another pack
+			return;
+		}
+	
+		// Compile the right value into a Texpr1Intern expression (once per unit).
+		Texpr1Intern rightExpression = this.assignments.computeIfAbsent(s, u -> new Texpr1Intern(env, valueToTexpr1Node(right)));
+		// Assign the compiled expression to the left variable in the abstract
+		// state, copying it first if it is shared.
+		long startTime = System.nanoTime();
+		outWrapper.assign(leftName, rightExpression);
+		this.assignNanos += System.nanoTime() - startTime;
+	}
 	
-		// Compile the right value into a Texpr1Intern expression.
-		Texpr1Intern rightExpression = new Texpr1Intern(env, valueToTexpr1Node(right));
-		// Assign the compiled expression to the left variable in the abstract state.
-		currentState.assign(man, leftName, rightExpression, null);
+	/**
+	 * Handles <code>left = invokeExpr</code>, using the summaries of all
+	 * possible callees if available
+	 */
+	private void handleCall(NumericalStateWrapper outWrapper, Unit s, Value left, InvokeExpr invokeExpr)
+			throws ApronException {
+		String leftName = ((JimpleLocal) left).getName();
+		if (!this.env.hasVar(leftName)) {
+			// variable of another pack
+			return;
+		}
+		List<MethodSummary> callees = this.summaries == null ? null : this.summaries.getSummaries(s);
+		if (callees == null) {
+			outWrapper.forget(new String[] { leftName });
+			return;
+		}
+		Abstract1 in = outWrapper.get();
+		if (in.isBottom(man)) {
+			return;
+		}
+		Abstract1 out = null;
+		for (MethodSummary callee : callees) {
+			Abstract1 after = callee.apply(man, in, env, leftName, invokeExpr.getArgs());
+			if (out == null) {
+				out = after;
+			} else {
+				out.join(man, after);
+			}
+		}
+		outWrapper.set(out);
+	}
 
-		// Update the wrapper with the new state.
-		outWrapper.set(currentState);
+	// STATISTICS
 
+	public long getFlowThroughCount() {
+		return this.flowThroughCount;
 	}
-	
+
+	public long getMergeCount() {
+		return this.mergeCount;
+	}
+
+	/**
+	 * 
+	 * @return number of times widening was applied at each loop head where it
+	 *         was applied at all
+	 */
+	public Map<Unit, Integer> getWideningCount() {
+		Map<Unit, Integer> ret = new HashMap<Unit, Integer>();
+		for (int i = 0; i < this.units.length; i++) {
+			if (this.wideningCount[i] > 0) {
+				ret.put(this.units[i], this.wideningCount[i]);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * 
+	 * @return number of merges at each loop head until the fixpoint was reached
+	 *         (not counting descending iterations)
+	 */
+	public Map<Unit, Integer> getIterationCount() {
+		Map<Unit, Integer> ret = new HashMap<Unit, Integer>();
+		for (int i = 0; i < this.units.length; i++) {
+			if (this.loopHeads[i] >= 0) {
+				ret.put(this.units[i], this.loopHeads[i]);
+			}
+		}
+		return ret;
+	}
+
+	public long getJoinNanos() {
+		return this.joinNanos;
+	}
+
+	public long getMeetNanos() {
+		return this.meetNanos;
+	}
+
+	public long getAssignNanos() {
+		return this.assignNanos;
+	}
+
 	// covenience/helper methods
+
+	/**
+	 * 
+	 * @param ifStmt
+	 * @return the constraints holding if the condition of <code>ifStmt</code> is
+	 *         true and false, respectively (null if the condition is not
+	 *         supported)
+	 */
+	private Tcons1[] compileCondition(JIfStmt ifStmt) {
+		Value condition = ifStmt.getCondition();
+		ConditionExpr condition_expression = (ConditionExpr) condition;
+		Value op1 = condition_expression.getOp1();
+		Value op2 = condition_expression.getOp2();
+		Texpr1Node op1_node = convertValueToTexpr1Node(op1);
+		Texpr1Node op2_node = convertValueToTexpr1Node(op2);
+		// Now we want to encode op1 - op2
+		Texpr1Node subop1op2 = new Texpr1BinNode(Texpr1BinNode.OP_SUB, op1_node, op2_node);
+
+		// Create the appropriate constraint
+		Tcons1 trueConstraint = null;
+		Tcons1 falseConstraint = null;
+		if (condition_expression instanceof JEqExpr) {
+			trueConstraint = new Tcons1(env, Tcons1.EQ, subop1op2);
+			falseConstraint = new Tcons1(env, Tcons1.DISEQ, subop1op2);
+		} else if (condition_expression instanceof JGeExpr) {
+			trueConstraint = new Tcons1(env, Tcons1.SUPEQ, subop1op2);
+			falseConstraint = new Tcons1(env, Tcons1.SUP, new Texpr1UnNode(Texpr1UnNode.OP_NEG, subop1op2));
+		} else if (condition_expression instanceof JGtExpr) {
+			trueConstraint = new Tcons1(env, Tcons1.SUP, subop1op2);
+			falseConstraint = new Tcons1(env, Tcons1.SUPEQ, new Texpr1UnNode(Texpr1UnNode.OP_NEG, subop1op2));
+		} else if (condition_expression instanceof JLeExpr) {
+			trueConstraint = new Tcons1(env, Tcons1.SUPEQ, new Texpr1UnNode(Texpr1UnNode.OP_NEG, subop1op2));
+			falseConstraint = new Tcons1(env, Tcons1.SUP, subop1op2);
+		} else if (condition_expression instanceof JLtExpr) {
+			trueConstraint = new Tcons1(env, Tcons1.SUP, new Texpr1UnNode(Texpr1UnNode.OP_NEG, subop1op2));
+			falseConstraint = new Tcons1(env, Tcons1.SUPEQ, subop1op2);
+		} else if (condition_expression instanceof JNeExpr) {
+			trueConstraint = new Tcons1(env, Tcons1.DISEQ, subop1op2);
+			falseConstraint = new Tcons1(env, Tcons1.EQ, subop1op2);
+		} else {
+			logger.debug("Illegal if statement");
+		}
+		return new Tcons1[] { trueConstraint, falseConstraint };
+	}
+
+	/**
+	 * Liveness pre-pass. The variables tracking overall_profit and the entry
+	 * values of parameters bound for {@link MethodSummary#of} are never dead,
+	 * as they are read after the analysis.
+	 * 
+	 * @param g
+	 * @return the variables of {@link #env} that are dead after each unit
+	 */
+	private HashMap<Unit, String[]> computeDeadVariables(UnitGraph g) {
+		SimpleLiveLocals liveLocals = new SimpleLiveLocals(g);
+		Set<String> parameters = new HashSet<String>();
+		if (this.summarize) {
+			parameters.addAll(Arrays.asList(MethodSummary.parameters(this.method)));
+		}
+		HashMap<Unit, String[]> ret = new HashMap<Unit, String[]>();
+		for (Unit u : g) {
+			Set<String> live = new HashSet<String>();
+			for (Local l : liveLocals.getLiveLocalsAfter(u)) {
+				live.add(l.getName());
+			}
+			List<String> dead = new ArrayList<String>();
+			for (Var v : this.env.getIntVars()) {
+				String name = v.toString();
+				if (!live.contains(name) && !name.startsWith(VariablePacker.OVERALL_PROFIT)
+						&& !parameters.contains(name)) {
+					dead.add(name);
+				}
+			}
+			if (!dead.isEmpty()) {
+				ret.put(u, dead.toArray(new String[dead.size()]));
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Collects widening thresholds: for each condition comparing two tracked
+	 * operands (variables or constants), the constraints op1 - op2 >= 0 and
+	 * op2 - op1 >= 0
+	 * 
+	 * @param g
+	 * @return the thresholds
+	 */
+	private Lincons1[] collectWideningThresholds(UnitGraph g) {
+		List<Lincons1> ret = new ArrayList<Lincons1>();
+		Set<String> seen = new HashSet<String>();
+		for (Unit u : g) {
+			if (!(u instanceof JIfStmt) || !this.isTracked((JIfStmt) u)) {
+				continue;
+			}
+			ConditionExpr condition = (ConditionExpr) ((JIfStmt) u).getCondition();
+			Value op1 = condition.getOp1();
+			Value op2 = condition.getOp2();
+			if (!(op1 instanceof JimpleLocal) && !(op2 instanceof JimpleLocal)) {
+				continue;
+			}
+			if (!SootHelper.isIntValue(op1) || !SootHelper.isIntValue(op2)) {
+				continue;
+			}
+			for (int sign = -1; sign <= 1; sign += 2) {
+				// sign * (op1 - op2) >= 0
+				HashMap<String, Integer> coeffs = new HashMap<String, Integer>();
+				int cst = NumericalAnalysis.addTerm(coeffs, op1, sign) + NumericalAnalysis.addTerm(coeffs, op2, -sign);
+				Linexpr1 e = new Linexpr1(this.env);
+				for (Map.Entry<String, Integer> term : coeffs.entrySet()) {
+					e.setCoeff(term.getKey(), new MpqScalar(term.getValue()));
+				}
+				e.setCst(new MpqScalar(cst));
+				Lincons1 c = new Lincons1(Lincons1.SUPEQ, e);
+				if (seen.add(c.toString())) {
+					ret.add(c);
+				}
+			}
+		}
+		logger.debug("Widening thresholds: {}", ret);
+		return ret.toArray(new Lincons1[ret.size()]);
+	}
+
+	/**
+	 * Adds <code>sign * v</code> to a linear expression
+	 * 
+	 * @param coeffs coefficient of each variable, updated if <code>v</code> is a
+	 *               variable
+	 * @param v      a local or an integer constant
+	 * @param sign
+	 * @return the constant part of <code>sign * v</code>
+	 */
+	private static int addTerm(HashMap<String, Integer> coeffs, Value v, int sign) {
+		if (v instanceof IntConstant) {
+			return sign * ((IntConstant) v).value;
+		}
+		coeffs.merge(((JimpleLocal) v).getName(), sign, Integer::sum);
+		return 0;
+	}
+
+	/**
+	 * 
+	 * @param ifStmt
+	 * @return false if the condition of <code>ifStmt</code> mentions a variable
+	 *         outside {@link #env}
+	 */
+	private boolean isTracked(JIfStmt ifStmt) {
+		ConditionExpr condition = (ConditionExpr) ifStmt.getCondition();
+		return this.isTracked(condition.getOp1()) && this.isTracked(condition.getOp2());
+	}
+
+	private boolean isTracked(Value v) {
+		return !(v instanceof JimpleLocal) || this.env.hasVar(((JimpleLocal) v).getName());
+	}
+
 	private Texpr1Node valueToTexpr1Node(Value expr) {
 		switch (expr.getClass().getSimpleName()) {
 			case "IntConstant":
@@ -1,5 +1,7 @@
 package ch.ethz.rse.numerical;
 
+import java.util.Map;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -8,9 +10,9 @@ import apron.ApronException;
 import apron.Environment;
 import apron.Interval;
 import apron.Manager;
-import apron.NotImplementedException;
 import apron.Tcons1;
 import apron.Texpr1Intern;
+import ch.ethz.rse.utils.Configuration;
 import soot.Local;
 import soot.SootHelper;
 import soot.Value;
@@ -57,6 +59,20 @@ public class NumericalStateWrapper {
 	 */
 	private final Manager man;
 
+	/**
+	 * False if {@link #elem} may be shared with other wrappers (copy-on-write).
+	 * Shared elements are never modified in place: destructive operations
+	 * replace them by a modified copy instead.
+	 */
+	private boolean owned;
+
+	/**
+	 * Cached {@link #hashCode()} of {@link #hashedElem}, which is reset whenever
+	 * {@link #elem} is modified in place
+	 */
+	private int hash;
+	private Abstract1 hashedElem;
+
 	// CONSTRUCTOR
 
 	/**
@@ -65,38 +81,91 @@ public class NumericalStateWrapper {
 	 * @param elem Abstract Apron element
 	 */
 	public NumericalStateWrapper(Manager man, Abstract1 elem) {
+		this(man, elem, true);
+	}
+
+	private NumericalStateWrapper(Manager man, Abstract1 elem, boolean owned) {
 		this.man = man;
 		this.elem = elem;
+		this.owned = owned;
 	}
 
 	// FUNCTIONS
 
+	/**
+	 * 
+	 * @return the wrapped element, which must not be modified in place (use
+	 *         {@link #meet(Tcons1)}, {@link #assign(String, Texpr1Intern)} or
+	 *         {@link #forget(String[])} instead)
+	 */
 	public Abstract1 get() {
 		return elem;
 	}
 
+	/**
+	 * 
+	 * @param e an element not referenced by any other wrapper
+	 */
 	public void set(Abstract1 e) {
 		elem = e;
+		owned = true;
+		hashedElem = null;
 	}
 
+	/**
+	 * 
+	 * @return a copy of this state, sharing the wrapped element until either
+	 *         one is modified
+	 */
 	public NumericalStateWrapper copy() {
-		Abstract1 copy;
-		try {
-			copy = new Abstract1(man, this.elem);
-			return new NumericalStateWrapper(this.man, copy);
-		} catch (ApronException e) {
-			throw new RuntimeException(e);
-		}
+		this.owned = false;
+		NumericalStateWrapper copy = new NumericalStateWrapper(this.man, this.elem, false);
+		copy.hash = this.hash;
+		copy.hashedElem = this.hashedElem;
+		return copy;
 	}
 
 	/**
-	 * Copies this state into `other`
+	 * Copies this state into `other`, sharing the wrapped element until either
+	 * one is modified
 	 * 
 	 * @param other
 	 */
 	public void copyInto(NumericalStateWrapper other) {
-		NumericalStateWrapper copy = this.copy();
-		other.elem = copy.elem;
+		this.owned = false;
+		other.elem = this.elem;
+		other.owned = false;
+		other.hash = this.hash;
+		other.hashedElem = this.hashedElem;
+	}
+
+	// DESTRUCTIVE OPERATIONS (copy-on-write)
+
+	public void meet(Tcons1 c) throws ApronException {
+		if (this.owned) {
+			this.elem.meet(this.man, c);
+			this.hashedElem = null;
+		} else {
+			this.set(this.elem.meetCopy(this.man, c));
+		}
+	}
+
+	public void assign(String var, Texpr1Intern expr) throws ApronException {
+		if (this.owned) {
+			this.elem.assign(this.man, var, expr, null);
+			this.hashedElem = null;
+		} else {
+			this.set(this.elem.assignCopy(this.man, var, expr, null));
+		}
+	}
+
+	public void forget(String[] vars) throws ApronException {
+		if (this.owned) {
+			this.elem.forget(this.man, vars, false);
+			this.hashedElem = null;
+		} else {
+			this.set(this.elem.forgetCopy(this.man, vars, false));
+		}
 	}
 
 	// EQUALS, HASHCODE, TOSTRING
@@ -110,22 +179,68 @@ public class NumericalStateWrapper {
 		NumericalStateWrapper w = (NumericalStateWrapper) o;
 
 		Abstract1 t = w.get();
+		if (elem == t) {
+			// shared (see copyInto) and not modified since
+			return true;
+		}
 		try {
-			// sanity check
-			if (elem.isEqual(man, t) && !elem.isIncluded(man, t)) {
+			boolean isEqual = elem.isEqual(man, t);
+
+			// read on each comparison, so that changing the property takes effect
+			// for later analyses
+			if (isEqual && Configuration.props.isStateSanityCheckEnabled() && !elem.isIncluded(man, t)) {
 				throw new RuntimeException("VIOLATION");
 			}
 
-			return elem.isEqual(man, t);
+			return isEqual;
 		} catch (ApronException e) {
 			throw new RuntimeException("isEqual failed");
 		}
 	}
 
+	/**
+	 * Hashes the bounding box of the element. Equal elements have equal bounds
+	 * on every variable, so this is consistent with {@link #equals(Object)},
+	 * independently of how Apron represents them internally.
+	 */
 	@Override
 	public int hashCode() {
-		// implementation non-trivial but not needed
-		throw new RuntimeException(new NotImplementedException());
+		if (this.hashedElem == this.elem) {
+			return this.hash;
+		}
+		try {
+			int h;
+			if (this.elem.isBottom(this.man)) {
+				h = 0;
+			} else {
+				h = 1;
+				for (Interval bound : this.elem.toBox(this.man)) {
+					h = 31 * h + bound.toString().hashCode();
+				}
+			}
+			this.hash = h;
+			this.hashedElem = this.elem;
+			return h;
+		} catch (ApronException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Lets <code>this</code> share the element of an equal state seen before,
+	 * if there is one
+	 * 
+	 * @param table previously seen states, owned by a single analysis
+	 */
+	public void intern(Map<NumericalStateWrapper, NumericalStateWrapper> table) {
+		NumericalStateWrapper canonical = table.get(this);
+		if (canonical == null) {
+			// the key must never change, so it shares the element
+			NumericalStateWrapper key = this.copy();
+			table.put(key, key);
+		} else if (canonical.elem != this.elem) {
+			canonical.copyInto(this);
+		}
 	}
 
 	@Override
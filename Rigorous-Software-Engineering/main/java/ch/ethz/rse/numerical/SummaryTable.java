@@ -0,0 +1,412 @@
+package ch.ethz.rse.numerical;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import apron.Abstract1;
+import apron.ApronException;
+import apron.Manager;
+import ch.ethz.rse.VerificationProperty;
+import ch.ethz.rse.pointer.PointsToInitializer;
+import ch.ethz.rse.utils.Configuration;
+import soot.Scene;
+import soot.SootClass;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.Stmt;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+
+/**
+ * Summaries (see {@link MethodSummary}) of the methods of a class returning
+ * integers, computed once and shared by all analyses of the class.
+ *
+ * Call targets are resolved using the call graph built by SPARK. Summaries are
+ * computed per strongly connected component of the call graph, callees before
+ * callers: either all at once by {@link #computeAll(int)}, which summarizes
+ * independent components in parallel, or on first use. The summaries of
+ * recursive components are iterated to a fixpoint.
+ */
+public class SummaryTable {
+
+	private static final Logger logger = LoggerFactory.getLogger(SummaryTable.class);
+
+	private final SootClass c;
+
+	private final PointsToInitializer pointsTo;
+
+	/**
+	 * domain analyzing callees
+	 */
+	private final AbstractDomain domain;
+
+	/**
+	 * Possible targets of each call in {@link #c}, restricted to concrete
+	 * methods of {@link #c}
+	 */
+	private final Map<Unit, List<SootMethod>> targets = new HashMap<Unit, List<SootMethod>>();
+
+	/**
+	 * Methods of {@link #c} called by each method of {@link #c}
+	 */
+	private final Map<SootMethod, Set<SootMethod>> callees = new HashMap<SootMethod, Set<SootMethod>>();
+
+	/**
+	 * Strongly connected components of the call graph of {@link #c}, callees
+	 * before callers
+	 */
+	private final List<List<SootMethod>> components = new ArrayList<List<SootMethod>>();
+
+	/**
+	 * Index in {@link #components} of the component of each method
+	 */
+	private final Map<SootMethod, Integer> componentOf = new HashMap<SootMethod, Integer>();
+
+	/**
+	 * Indices of the components called by each component
+	 */
+	private final List<Set<Integer>> dependencies = new ArrayList<Set<Integer>>();
+
+	/**
+	 * Methods on a cycle of the call graph
+	 */
+	private final Set<SootMethod> recursive = new HashSet<SootMethod>();
+
+	/**
+	 * Final summaries
+	 */
+	private final Map<SootMethod, MethodSummary> summaries = new ConcurrentHashMap<SootMethod, MethodSummary>();
+
+	/**
+	 * Intermediate summaries of recursive methods while their component is
+	 * iterated. Only analyses of the same component can call these methods.
+	 */
+	private final Map<SootMethod, MethodSummary> approximations = new ConcurrentHashMap<SootMethod, MethodSummary>();
+
+	/**
+	 * Indices of the components whose methods are all summarized
+	 */
+	private final Set<Integer> completed = ConcurrentHashMap.newKeySet();
+
+	/**
+	 *
+	 * @param c        class whose methods are summarized
+	 * @param pointsTo points-to results for <code>c</code>
+	 * @param domain   domain to analyze callees with
+	 */
+	public SummaryTable(SootClass c, PointsToInitializer pointsTo, AbstractDomain domain) {
+		this.c = c;
+		this.pointsTo = pointsTo;
+		this.domain = domain;
+
+		CallGraph cg = Scene.v().getCallGraph();
+		for (SootMethod method : c.getMethods()) {
+			if (!method.isConcrete()) {
+				continue;
+			}
+			Set<SootMethod> out = new LinkedHashSet<SootMethod>();
+			for (Unit u : method.getActiveBody().getUnits()) {
+				if (!((Stmt) u).containsInvokeExpr()) {
+					continue;
+				}
+				List<SootMethod> ts = new ArrayList<SootMethod>();
+				for (Iterator<Edge> it = cg.edgesOutOf(u); it.hasNext();) {
+					SootMethod target = it.next().tgt();
+					if (target.getDeclaringClass() == c && target.isConcrete() && !ts.contains(target)) {
+						ts.add(target);
+					}
+				}
+				this.targets.put(u, ts);
+				out.addAll(ts);
+			}
+			this.callees.put(method, out);
+		}
+		this.computeComponents();
+
+		for (int i = 0; i < this.components.size(); i++) {
+			Set<Integer> deps = new LinkedHashSet<Integer>();
+			for (SootMethod m : this.components.get(i)) {
+				for (SootMethod callee : this.callees.get(m)) {
+					deps.add(this.componentOf.get(callee));
+				}
+			}
+			deps.remove(i);
+			this.dependencies.add(deps);
+		}
+	}
+
+	/**
+	 *
+	 * @return the strongly connected components of the call graph of the
+	 *         class, each callee before its callers
+	 */
+	public List<List<SootMethod>> getComponents() {
+		return this.components;
+	}
+
+	/**
+	 *
+	 * @param method
+	 * @return the methods of the class <code>method</code> may call, directly
+	 *         or not
+	 */
+	public Set<SootMethod> getTransitiveCallees(SootMethod method) {
+		Set<SootMethod> ret = new LinkedHashSet<SootMethod>();
+		Deque<SootMethod> todo = new ArrayDeque<SootMethod>(this.callees.getOrDefault(method,
+				Collections.<SootMethod>emptySet()));
+		while (!todo.isEmpty()) {
+			SootMethod m = todo.pop();
+			if (ret.add(m)) {
+				todo.addAll(this.callees.get(m));
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 *
+	 * @param callSite statement containing a call
+	 * @return the summaries of all possible targets of the call, or null if
+	 *         some target cannot be summarized
+	 */
+	public List<MethodSummary> getSummaries(Unit callSite) {
+		List<SootMethod> ts = this.targets.get(callSite);
+		if (ts == null || ts.isEmpty()) {
+			// unknown callee
+			return null;
+		}
+		List<MethodSummary> ret = new ArrayList<MethodSummary>(ts.size());
+		for (SootMethod target : ts) {
+			MethodSummary summary = this.get(target);
+			if (summary == null) {
+				return null;
+			}
+			ret.add(summary);
+		}
+		return ret;
+	}
+
+	/**
+	 *
+	 * @param method concrete method of the class
+	 * @return the summary of <code>method</code>, computed if needed, or null if
+	 *         <code>method</code> does not return an integer
+	 */
+	public MethodSummary get(SootMethod method) {
+		if (!MethodSummary.returnsInteger(method) || !this.componentOf.containsKey(method)) {
+			return null;
+		}
+		MethodSummary ret = this.summaries.get(method);
+		if (ret == null) {
+			ret = this.approximations.get(method);
+		}
+		if (ret == null) {
+			this.computeOnDemand(this.componentOf.get(method));
+			ret = this.summaries.get(method);
+		}
+		return ret;
+	}
+
+	/**
+	 * Summarizes all methods, running the analyses of independent components
+	 * in parallel. Must not run concurrently with analyses using this table.
+	 *
+	 * @param threads number of worker threads (1 summarizes sequentially on the
+	 *                calling thread)
+	 */
+	public void computeAll(int threads) {
+		if (threads <= 1) {
+			for (int i = 0; i < this.components.size(); i++) {
+				this.computeComponent(i);
+			}
+			return;
+		}
+
+		// a component is summarized once all the components it calls are
+		ExecutorService pool = Executors.newWorkStealingPool(threads);
+		try {
+			List<CompletableFuture<Void>> done = new ArrayList<CompletableFuture<Void>>();
+			for (int i = 0; i < this.components.size(); i++) {
+				final int component = i;
+				List<CompletableFuture<Void>> deps = new ArrayList<CompletableFuture<Void>>();
+				for (int dep : this.dependencies.get(i)) {
+					deps.add(done.get(dep));
+				}
+				done.add(CompletableFuture.allOf(deps.toArray(new CompletableFuture<?>[deps.size()]))
+						.thenRunAsync(() -> this.computeComponent(component), pool));
+			}
+			CompletableFuture.allOf(done.toArray(new CompletableFuture<?>[done.size()])).join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Summarizes a component and, before, all the components it calls. Each
+	 * component is visited once, even if many callers share it.
+	 *
+	 * @param component index in {@link #components}
+	 */
+	private synchronized void computeOnDemand(int component) {
+		if (this.completed.contains(component)) {
+			return;
+		}
+		for (int dep : this.dependencies.get(component)) {
+			this.computeOnDemand(dep);
+		}
+		this.computeComponent(component);
+	}
+
+	/**
+	 * Summarizes the methods of a component unless done before, assuming all
+	 * the components it calls are summarized
+	 *
+	 * @param component index in {@link #components}
+	 */
+	private void computeComponent(int component) {
+		if (!this.completed.contains(component)) {
+			this.summarizeComponent(component);
+			this.completed.add(component);
+		}
+	}
+
+	private void summarizeComponent(int component) {
+		List<SootMethod> members = new ArrayList<SootMethod>();
+		for (SootMethod m : this.components.get(component)) {
+			if (MethodSummary.returnsInteger(m) && !this.summaries.containsKey(m)) {
+				members.add(m);
+			}
+		}
+		if (members.isEmpty()) {
+			return;
+		}
+
+		if (!this.recursive.contains(members.get(0))) {
+			SootMethod m = members.get(0);
+			this.summaries.put(m, this.summarize(m));
+			return;
+		}
+
+		// recursive: start from methods that never return, and widen as in
+		// NumericalAnalysis.merge to ensure termination
+		try {
+			Manager man = this.domain.createManager();
+			for (SootMethod m : members) {
+				this.approximations.put(m, MethodSummary.bottom(m));
+			}
+			int threshold = Configuration.props.getWideningThreshold();
+			boolean stable = false;
+			for (int iteration = 1; !stable; iteration++) {
+				stable = true;
+				for (SootMethod m : members) {
+					Abstract1 old = this.approximations.get(m).toAbstract1(man);
+					Abstract1 next = old.joinCopy(man, this.summarize(m).toAbstract1(man));
+					if (iteration >= threshold) {
+						next = old.widening(man, next);
+					}
+					if (!next.isEqual(man, old)) {
+						stable = false;
+						this.approximations.put(m, MethodSummary.of(m, man, next));
+					}
+				}
+				logger.debug("Iteration {} of summarizing {}", iteration, members);
+			}
+		} catch (ApronException e) {
+			throw new RuntimeException(e);
+		}
+		for (SootMethod m : members) {
+			this.summaries.put(m, this.approximations.remove(m));
+		}
+	}
+
+	/**
+	 *
+	 * @param method
+	 * @return the summary of one analysis of <code>method</code>, using the
+	 *         current summaries of the methods it calls
+	 */
+	private MethodSummary summarize(SootMethod method) {
+		logger.debug("Summarizing {}", method.getName());
+		NumericalAnalysis analysis = new NumericalAnalysis(method, VerificationProperty.NON_NEGATIVE,
+				this.pointsTo, this.domain, null, this, true);
+		try {
+			MethodSummary ret = MethodSummary.of(method, analysis);
+			logger.debug("Summary of {}", ret);
+			return ret;
+		} catch (ApronException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Tarjan's algorithm, which finds components in reverse topological order
+	 */
+	private void computeComponents() {
+		Map<SootMethod, Integer> index = new HashMap<SootMethod, Integer>();
+		Map<SootMethod, Integer> low = new HashMap<SootMethod, Integer>();
+		Deque<SootMethod> stack = new ArrayDeque<SootMethod>();
+		Set<SootMethod> onStack = new HashSet<SootMethod>();
+		// visit methods in the order of c, for a deterministic order
+		for (SootMethod m : this.c.getMethods()) {
+			if (this.callees.containsKey(m) && !index.containsKey(m)) {
+				this.strongConnect(m, index, low, stack, onStack);
+			}
+		}
+	}
+
+	private void strongConnect(SootMethod m, Map<SootMethod, Integer> index, Map<SootMethod, Integer> low,
+			Deque<SootMethod> stack, Set<SootMethod> onStack) {
+		index.put(m, index.size());
+		low.put(m, index.get(m));
+		stack.push(m);
+		onStack.add(m);
+		for (SootMethod callee : this.callees.get(m)) {
+			if (!index.containsKey(callee)) {
+				this.strongConnect(callee, index, low, stack, onStack);
+				low.put(m, Math.min(low.get(m), low.get(callee)));
+			} else if (onStack.contains(callee)) {
+				low.put(m, Math.min(low.get(m), index.get(callee)));
+			}
+		}
+		if (low.get(m).equals(index.get(m))) {
+			List<SootMethod> component = new ArrayList<SootMethod>();
+			SootMethod member;
+			do {
+				member = stack.pop();
+				onStack.remove(member);
+				component.add(member);
+				this.componentOf.put(member, this.components.size());
+			} while (member != m);
+			Collections.reverse(component);
+			this.components.add(component);
+			if (component.size() > 1 || this.callees.get(m).contains(m)) {
+				this.recursive.addAll(component);
+			}
+		}
+	}
+}
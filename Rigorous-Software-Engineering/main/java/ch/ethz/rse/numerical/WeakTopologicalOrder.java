@@ -0,0 +1,257 @@
+package ch.ethz.rse.numerical;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import soot.Unit;
+import soot.toolkits.graph.DirectedGraph;
+
+/**
+ * Weak topological order of a control flow graph, computed using Bourdoncle's
+ * algorithm ("Efficient chaotic iteration strategies with widenings", 1993).
+ * 
+ * The order is a list of elements, each of which is either a single unit or a
+ * component: a head followed by the (recursively ordered) body of a loop.
+ * Iterating components until their head stabilizes (the recursive strategy)
+ * reaches a fixed point while widening only at component heads.
+ */
+public class WeakTopologicalOrder {
+
+	/**
+	 * An element of a weak topological order
+	 */
+	public static class Element {
+
+		/**
+		 * the unit itself, or the head of a component
+		 */
+		public final Unit head;
+
+		/**
+		 * body of a component, null for single units
+		 */
+		public final List<Element> body;
+
+		private Element(Unit head, List<Element> body) {
+			this.head = head;
+			this.body = body;
+		}
+
+		/**
+		 * 
+		 * @return true if this element is a component (i.e., a loop)
+		 */
+		public boolean isComponent() {
+			return this.body != null;
+		}
+
+		@Override
+		public String toString() {
+			if (!this.isComponent()) {
+				return this.head.toString();
+			}
+			return "(" + this.head + " " + this.body + ")";
+		}
+	}
+
+	private final DirectedGraph<Unit> graph;
+
+	/**
+	 * depth-first number of each unit, 0 if unvisited and
+	 * {@link Integer#MAX_VALUE} if finished
+	 */
+	private final Map<Unit, Integer> dfn = new HashMap<Unit, Integer>();
+
+	private final Deque<Unit> stack = new ArrayDeque<Unit>();
+
+	private int num = 0;
+
+	private final List<Element> elements = new LinkedList<Element>();
+
+	private final List<Unit> componentHeads = new ArrayList<Unit>();
+
+	/**
+	 * nesting depth of each component head, 1 for outermost components
+	 */
+	private final Map<Unit, Integer> depths = new HashMap<Unit, Integer>();
+
+	/**
+	 * 
+	 * @param graph
+	 */
+	public WeakTopologicalOrder(DirectedGraph<Unit> graph) {
+		this.graph = graph;
+		for (Unit u : graph) {
+			this.dfn.put(u, 0);
+		}
+		for (Unit head : graph.getHeads()) {
+			if (this.dfn.get(head) == 0) {
+				this.visit(head, this.elements);
+			}
+		}
+		// units unreachable from any head still need to be processed once
+		for (Unit u : graph) {
+			if (this.dfn.get(u) == 0) {
+				this.visit(u, this.elements);
+			}
+		}
+		this.computeDepths(this.elements, 1);
+	}
+
+	/**
+	 * 
+	 * @return top-level elements, in order
+	 */
+	public List<Element> getElements() {
+		return Collections.unmodifiableList(this.elements);
+	}
+
+	/**
+	 * 
+	 * @return heads of all (possibly nested) components
+	 */
+	public List<Unit> getComponentHeads() {
+		return Collections.unmodifiableList(this.componentHeads);
+	}
+
+	/**
+	 * 
+	 * @param head head of a component
+	 * @return the number of components containing <code>head</code>, including
+	 *         its own
+	 */
+	public int getDepth(Unit head) {
+		return this.depths.get(head);
+	}
+
+	private void computeDepths(List<Element> elements, int depth) {
+		for (Element e : elements) {
+			if (e.isComponent()) {
+				this.depths.put(e.head, depth);
+				this.computeDepths(e.body, depth + 1);
+			}
+		}
+	}
+
+	/**
+	 * Visits all units reachable from <code>root</code> that are not visited
+	 * yet, adding their elements to <code>partition</code>. The recursion of
+	 * Bourdoncle's visit and component procedures is unrolled onto an explicit
+	 * stack of frames, so that long methods do not overflow the Java stack.
+	 * 
+	 * @param root
+	 * @param partition
+	 */
+	private void visit(Unit root, List<Element> partition) {
+		Deque<Frame> frames = new ArrayDeque<Frame>();
+		frames.push(this.enter(root, partition));
+		while (!frames.isEmpty()) {
+			Frame f = frames.peek();
+			if (f.successors.hasNext()) {
+				Unit w = f.successors.next();
+				if (this.dfn.get(w) == 0) {
+					frames.push(this.enter(w, f.partition));
+				} else if (!f.component) {
+					f.update(this.dfn.get(w));
+				}
+				continue;
+			}
+			frames.pop();
+			if (f.component) {
+				// body of the component is complete
+				f.target.add(0, new Element(f.unit, f.partition));
+				continue;
+			}
+			// return the head of v to the calling visit, if any
+			Frame caller = frames.peek();
+			if (caller != null && !caller.component) {
+				caller.update(f.head);
+			}
+			if (f.head == this.dfn.get(f.unit)) {
+				this.dfn.put(f.unit, Integer.MAX_VALUE);
+				Unit element = this.stack.pop();
+				if (f.loop) {
+					while (element != f.unit) {
+						this.dfn.put(element, 0);
+						element = this.stack.pop();
+					}
+					this.componentHeads.add(f.unit);
+					frames.push(new Frame(f.unit, new LinkedList<Element>(), f.partition,
+							this.graph.getSuccsOf(f.unit).iterator()));
+				} else {
+					f.partition.add(0, new Element(f.unit, null));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Starts visiting <code>v</code>
+	 * 
+	 * @param v
+	 * @param partition partition the elements of <code>v</code> are added to
+	 * @return the frame of the visit
+	 */
+	private Frame enter(Unit v, List<Element> partition) {
+		this.stack.push(v);
+		this.num++;
+		this.dfn.put(v, this.num);
+		Frame f = new Frame(v, partition, null, this.graph.getSuccsOf(v).iterator());
+		f.head = this.num;
+		return f;
+	}
+
+	/**
+	 * Pending call of Bourdoncle's visit (<code>target</code> is null) or
+	 * component procedure
+	 */
+	private static class Frame {
+
+		private final Unit unit;
+
+		/**
+		 * partition elements are added to: the enclosing partition of a visit,
+		 * or the body of a component
+		 */
+		private final List<Element> partition;
+
+		/**
+		 * partition the finished component is added to
+		 */
+		private final List<Element> target;
+
+		private final boolean component;
+
+		private final Iterator<Unit> successors;
+
+		private int head;
+
+		private boolean loop = false;
+
+		private Frame(Unit unit, List<Element> partition, List<Element> target, Iterator<Unit> successors) {
+			this.unit = unit;
+			this.partition = partition;
+			this.target = target;
+			this.component = target != null;
+			this.successors = successors;
+		}
+
+		/**
+		 * 
+		 * @param min head reached through a successor
+		 */
+		private void update(int min) {
+			if (min <= this.head) {
+				this.head = min;
+				this.loop = true;
+			}
+		}
+	}
+}
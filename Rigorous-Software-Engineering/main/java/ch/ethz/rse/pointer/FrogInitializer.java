@@ -47,9 +47,10 @@ public class FrogInitializer {
 
 	/**
 	 * 
-	 * @return unique identifier of the initializer
+	 * @return unique identifier of the initializer, numbering the initializers
+	 *         of a class densely from 0
 	 */
-	private int getUniqueNumber() {
+	public int getUniqueNumber() {
 		return this.uniqueNumber;
 	}
 
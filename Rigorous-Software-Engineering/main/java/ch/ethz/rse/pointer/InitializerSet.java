@@ -0,0 +1,102 @@
+package ch.ethz.rse.pointer;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ *
+ * Immutable result of a points-to query: the {@link FrogInitializer}s a local
+ * may point to, as an entry of the table of {@link PointsToInitializer}. Safe
+ * to share between analyses and threads.
+ *
+ * Use {@link #size()} and {@link #get(int)} on hot paths, which do not
+ * allocate.
+ *
+ */
+public final class InitializerSet implements Iterable<FrogInitializer> {
+
+	/**
+	 * unique numbers of the initializers, never modified after construction
+	 */
+	private final int[] numbers;
+
+	/**
+	 * all initializers of the class, indexed by their unique number
+	 */
+	private final List<FrogInitializer> byNumber;
+
+	/**
+	 *
+	 * @param numbers  array which is not modified after this call
+	 * @param byNumber initializers indexed by their unique number
+	 */
+	InitializerSet(int[] numbers, List<FrogInitializer> byNumber) {
+		this.numbers = numbers;
+		this.byNumber = byNumber;
+	}
+
+	public int size() {
+		return this.numbers.length;
+	}
+
+	public boolean isEmpty() {
+		return this.numbers.length == 0;
+	}
+
+	/**
+	 *
+	 * @param i index between 0 and {@link #size()}
+	 * @return the <code>i</code>-th initializer
+	 */
+	public FrogInitializer get(int i) {
+		return this.byNumber.get(this.numbers[i]);
+	}
+
+	/**
+	 *
+	 * @return the production costs of all initializers, sorted
+	 */
+	public int[] getSortedArguments() {
+		int[] ret = new int[this.numbers.length];
+		for (int i = 0; i < ret.length; i++) {
+			ret[i] = this.get(i).argument;
+		}
+		Arrays.sort(ret);
+		return ret;
+	}
+
+	@Override
+	public Iterator<FrogInitializer> iterator() {
+		return new Iterator<FrogInitializer>() {
+
+			private int i = 0;
+
+			@Override
+			public boolean hasNext() {
+				return this.i < InitializerSet.this.numbers.length;
+			}
+
+			@Override
+			public FrogInitializer next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return InitializerSet.this.get(this.i++);
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < this.numbers.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(this.get(i));
+		}
+		return sb.append("]").toString();
+	}
+}
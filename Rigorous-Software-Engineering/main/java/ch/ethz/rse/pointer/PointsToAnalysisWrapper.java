@@ -1,7 +1,7 @@
 package ch.ethz.rse.pointer;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 
 import soot.Local;
 import soot.PointsToAnalysis;
@@ -17,6 +17,11 @@ import soot.jimple.spark.sets.PointsToSetInternal;
  */
 public class PointsToAnalysisWrapper {
 
+	/**
+	 * SPARK is not thread-safe, and its results are shared by all wrappers
+	 */
+	private static final Object LOCK = new Object();
+
 	private final PointsToAnalysis pointsToAnalysis;
 
 	public PointsToAnalysisWrapper(SootClass c) {
@@ -30,10 +35,12 @@ public class PointsToAnalysisWrapper {
 	 * @return a list of nodes that base could point to
 	 */
 	public Collection<Node> getNodes(Local base) {
-		PointsToSetInternal pts = (PointsToSetInternal) this.pointsToAnalysis.reachingObjects(base);
-		P2SetCollector c = new P2SetCollector();
-		pts.forall(c);
-		return c.getNodes();
+		synchronized (LOCK) {
+			PointsToSetInternal pts = (PointsToSetInternal) this.pointsToAnalysis.reachingObjects(base);
+			P2SetCollector c = new P2SetCollector();
+			pts.forall(c);
+			return c.getNodes();
+		}
 	}
 
 }
@@ -43,7 +50,7 @@ public class PointsToAnalysisWrapper {
  */
 class P2SetCollector extends P2SetVisitor {
 
-	private final Collection<Node> nodes = new LinkedList<Node>();
+	private final Collection<Node> nodes = new ArrayList<Node>();
 
 	@Override
 	public void visit(Node node) {
@@ -1,10 +1,12 @@
 package ch.ethz.rse.pointer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,9 +18,11 @@ import apron.Texpr1Node;
 import ch.ethz.rse.utils.Constants;
 import soot.Local;
 import soot.SootClass;
+import soot.SootHelper;
 import soot.SootMethod;
 import soot.Unit;
 import soot.Value;
+import soot.jimple.InstanceInvokeExpr;
 import soot.jimple.IntConstant;
 import soot.jimple.InvokeExpr;
 import soot.jimple.internal.JInvokeStmt;
@@ -49,6 +53,19 @@ public class PointsToInitializer {
 	 */
 	private final Map<Node, FrogInitializer> initializers = new HashMap<Node, FrogInitializer>();
 
+	/**
+	 * All {@link FrogInitializer}s, indexed by their unique number
+	 */
+	private final List<FrogInitializer> byNumber = new ArrayList<FrogInitializer>();
+
+	/**
+	 * Unique numbers of the initializers each local may point to. Frog locals
+	 * and receivers of calls to sell in {@link #c}, which are all locals the
+	 * analyses query, are resolved once after the points-to analysis, before any
+	 * analysis runs. Other locals are resolved on their first query.
+	 */
+	private final Map<Local, InitializerSet> table = new ConcurrentHashMap<Local, InitializerSet>();
+
 	/**
 	 * All {@link FrogInitializer}s, keyed by method
 	 */
@@ -60,6 +77,7 @@ public class PointsToInitializer {
 		this.pointsTo = new PointsToAnalysisWrapper(c);
 		logger.debug("Analyzing initializers in " + c.getName());
 		this.analyzeAllInitializers();
+		this.buildTable();
 	}
 
 	private void analyzeAllInitializers() {
@@ -98,6 +116,7 @@ public class PointsToInitializer {
 					//create FrogInitializer and populate datastructures
 					FrogInitializer frogInitializer = new FrogInitializer(invokeStmt, id++, productionCost);
 					perMethod.put(method, frogInitializer);
+					byNumber.add(frogInitializer);
 					for(Node node:nodes){
 						initializers.put(node, frogInitializer);
 					}
@@ -110,17 +129,51 @@ public class PointsToInitializer {
 		return this.perMethod.get(method);
 	}
 
-	public List<FrogInitializer> pointsTo(Local base) {
+	private void buildTable() {
+		for (SootMethod method : this.c.getMethods()) {
+			if (!method.hasActiveBody()) {
+				continue;
+			}
+			for (Local l : method.getActiveBody().getLocals()) {
+				if (l.getType().toString().equals(Constants.FrogClassName)) {
+					this.table.put(l, this.resolve(l));
+				}
+			}
+			for (Unit u : method.getActiveBody().getUnits()) {
+				if (u instanceof JInvokeStmt && SootHelper.isSellCall(((JInvokeStmt) u).getInvokeExpr())) {
+					Local base = (Local) ((InstanceInvokeExpr) ((JInvokeStmt) u).getInvokeExpr()).getBase();
+					this.table.computeIfAbsent(base, this::resolve);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 
+	 * @param base
+	 * @return the initializers base may point to, looked up in the table
+	 */
+	public InitializerSet pointsTo(Local base) {
+		return this.table.computeIfAbsent(base, this::resolve);
+	}
+
+	/**
+	 * Queries the points-to analysis (see
+	 * {@link PointsToAnalysisWrapper#getNodes(Local)} on calls from several
+	 * threads)
+	 */
+	private InitializerSet resolve(Local base) {
 		Collection<Node> nodes = this.pointsTo.getNodes(base);
-		List<FrogInitializer> initializers = new LinkedList<FrogInitializer>();
+		int[] numbers = new int[nodes.size()];
+		int n = 0;
 		for (Node node : nodes) {
 			FrogInitializer initializer = this.initializers.get(node);
 			if (initializer != null) {
 				// ignore nodes that were not initialized
-				initializers.add(initializer);
+				numbers[n++] = initializer.getUniqueNumber();
 			}
 		}
-		return initializers;
+		return new InitializerSet(Arrays.copyOf(numbers, n), this.byNumber);
 	}
 
 	/**
@@ -0,0 +1,231 @@
+package ch.ethz.rse.testing;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+
+/**
+ * Generates and compiles synthetic classes to verify, in the style of the
+ * hand-written tests in <code>ch.ethz.rse.integration.tests</code>, but of
+ * configurable size
+ */
+public class SyntheticProgramGenerator {
+
+	private static final Logger logger = LoggerFactory.getLogger(SyntheticProgramGenerator.class);
+
+	/**
+	 * Package of generated classes
+	 */
+	public static final String PACKAGE = "ch.ethz.rse.synthetic";
+
+	/**
+	 * number of generated methods
+	 */
+	private final int methods;
+
+	/**
+	 * number of integer locals per method (besides loop counters)
+	 */
+	private final int locals;
+
+	/**
+	 * depth of the tree of if statements guarding calls to sell
+	 */
+	private final int branchDepth;
+
+	/**
+	 * depth of the loop nest updating the locals
+	 */
+	private final int loopDepth;
+
+	/**
+	 * number of Frog allocations per method
+	 */
+	private final int frogs;
+
+	/**
+	 * number of calls to sell per method
+	 */
+	private final int sells;
+
+	/**
+	 * seed making the generated program deterministic
+	 */
+	private final long seed;
+
+	/**
+	 *
+	 * @param methods     number of generated methods (at least 1)
+	 * @param locals      number of integer locals per method (at least 1)
+	 * @param branchDepth depth of the tree of if statements guarding calls to
+	 *                    sell. Calls are distributed over its leaves.
+	 * @param loopDepth   depth of the loop nest updating the locals
+	 * @param frogs       number of Frog allocations per method (at least 1)
+	 * @param sells       number of calls to sell per method
+	 * @param seed        seed for the choice of constants and operands
+	 */
+	public SyntheticProgramGenerator(int methods, int locals, int branchDepth, int loopDepth, int frogs, int sells,
+			long seed) {
+		if (methods < 1 || locals < 1 || frogs < 1 || branchDepth < 0 || loopDepth < 0 || sells < 0) {
+			throw new IllegalArgumentException("Invalid program size: "
+					+ SyntheticProgramGenerator.describe(methods, locals, branchDepth, loopDepth, frogs, sells));
+		}
+		this.methods = methods;
+		this.locals = locals;
+		this.branchDepth = branchDepth;
+		this.loopDepth = loopDepth;
+		this.frogs = frogs;
+		this.sells = sells;
+		this.seed = seed;
+	}
+
+	/**
+	 *
+	 * @return unqualified name of the generated class, encoding its size
+	 */
+	public String getClassName() {
+		return "Synthetic_M" + this.methods + "_L" + this.locals + "_B" + this.branchDepth + "_N" + this.loopDepth
+				+ "_F" + this.frogs + "_C" + this.sells + "_S" + this.seed;
+	}
+
+	/**
+	 *
+	 * @return total number of calls to sell in the generated class
+	 */
+	public int getSellCount() {
+		return this.methods * this.sells;
+	}
+
+	@Override
+	public String toString() {
+		return SyntheticProgramGenerator.describe(this.methods, this.locals, this.branchDepth, this.loopDepth,
+				this.frogs, this.sells);
+	}
+
+	private static String describe(int methods, int locals, int branchDepth, int loopDepth, int frogs, int sells) {
+		return "methods=" + methods + ", locals=" + locals + ", branchDepth=" + branchDepth + ", loopDepth="
+				+ loopDepth + ", frogs=" + frogs + ", sells=" + sells;
+	}
+
+	/**
+	 *
+	 * @return fully qualified name of the generated class
+	 */
+	public String getQualifiedName() {
+		return PACKAGE + "." + this.getClassName();
+	}
+
+	/**
+	 *
+	 * @return Java source of the generated class
+	 */
+	public String generate() {
+		Random random = new Random(this.seed);
+		StringBuilder sb = new StringBuilder();
+		sb.append("package ").append(PACKAGE).append(";\n\n");
+		sb.append("import ch.ethz.rse.Frog;\n\n");
+		sb.append("public class ").append(this.getClassName()).append(" {\n");
+		for (int m = 0; m < this.methods; m++) {
+			if (m > 0) {
+				sb.append("\n");
+			}
+			this.generateMethod(sb, "m" + m, random);
+		}
+		sb.append("}\n");
+		return sb.toString();
+	}
+
+	private void generateMethod(StringBuilder sb, String name, Random random) {
+		sb.append("    public void ").append(name).append("(int a) {\n");
+
+		for (int f = 0; f < this.frogs; f++) {
+			line(sb, 2, "Frog f" + f + " = new Frog(" + random.nextInt(10) + ");");
+		}
+		for (int v = 0; v < this.locals; v++) {
+			String init = v == 0 ? "a" : "v" + random.nextInt(v);
+			line(sb, 2, "int v" + v + " = " + init + " + " + random.nextInt(5) + ";");
+		}
+
+		// loop nest, updating all locals in the innermost loop
+		for (int d = 0; d < this.loopDepth; d++) {
+			String i = "i" + d;
+			line(sb, 2 + d, "for (int " + i + " = 0; " + i + " < " + (2 + random.nextInt(8)) + "; " + i + "++) {");
+		}
+		for (int v = 0; v < this.locals && this.loopDepth > 0; v++) {
+			line(sb, 2 + this.loopDepth, "v" + v + " = v" + random.nextInt(this.locals) + " + " + random.nextInt(3) + ";");
+		}
+		for (int d = this.loopDepth - 1; d >= 0; d--) {
+			line(sb, 2 + d, "}");
+		}
+
+		this.generateBranches(sb, 2, this.branchDepth, this.sells, random);
+
+		sb.append("    }\n");
+	}
+
+	/**
+	 * Emits a tree of if statements of the given depth, distributing
+	 * <code>sells</code> calls to sell over its leaves
+	 */
+	private void generateBranches(StringBuilder sb, int indent, int depth, int sells, Random random) {
+		if (depth == 0) {
+			for (int s = 0; s < sells; s++) {
+				String f = "f" + random.nextInt(this.frogs);
+				// sell either a local or a constant
+				String price = random.nextBoolean() ? "v" + random.nextInt(this.locals) : "" + random.nextInt(10);
+				line(sb, indent, f + ".sell(" + price + ");");
+			}
+			return;
+		}
+		String v = "v" + random.nextInt(this.locals);
+		line(sb, indent, "if (" + v + " >= " + random.nextInt(10) + ") {");
+		this.generateBranches(sb, indent + 1, depth - 1, sells - sells / 2, random);
+		line(sb, indent, "} else {");
+		this.generateBranches(sb, indent + 1, depth - 1, sells / 2, random);
+		line(sb, indent, "}");
+	}
+
+	/**
+	 * Writes the generated class below <code>sourceDir</code> and compiles it to
+	 * <code>classesDir</code>
+	 *
+	 * @param sourceDir  root directory for the generated source
+	 * @param classesDir root directory for the compiled class, which must also
+	 *                   contain ch.ethz.rse.Frog (e.g., target/test-classes)
+	 * @return fully qualified name of the compiled class
+	 * @throws IOException
+	 */
+	public String compile(File sourceDir, File classesDir) throws IOException {
+		File source = new File(sourceDir, this.getQualifiedName().replace(".", "/") + ".java");
+		Files.createParentDirs(source);
+		Files.asCharSink(source, Charsets.UTF_8).write(this.generate());
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) {
+			throw new IllegalStateException("No Java compiler available, run on a JDK");
+		}
+		String[] args = { "-g", "-cp", classesDir.getAbsolutePath(), "-d", classesDir.getAbsolutePath(),
+				source.getAbsolutePath() };
+		logger.debug("Compiling {}", Arrays.toString(args));
+		int exitCode = compiler.run(null, null, null, args);
+		if (exitCode != 0) {
+			throw new IOException("Failed to compile " + source.getAbsolutePath());
+		}
+		return this.getQualifiedName();
+	}
+
+	private static void line(StringBuilder sb, int indent, String line) {
+		sb.append(Strings.repeat("    ", indent)).append(line).append('\n');
+	}
+}
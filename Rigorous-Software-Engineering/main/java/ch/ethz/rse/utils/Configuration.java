@@ -1,11 +1,15 @@
 package ch.ethz.rse.utils;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ch.ethz.rse.numerical.AbstractDomain;
+
 /**
  * 
  * Loads properties from the properties file. Needed to provide configuration
@@ -61,4 +65,220 @@ public class Configuration {
 		return this.prop.getProperty("BASEDIR");
 	}
 
+	/**
+	 * 
+	 * @return number of worker threads analyzing the methods of a class (1 runs
+	 *         the analysis sequentially on the calling thread)
+	 */
+	public int getAnalysisThreads() {
+		int threads = this.getIntProperty("ANALYSIS_THREADS", 1);
+		if (threads <= 0) {
+			// use all available cores
+			return Runtime.getRuntime().availableProcessors();
+		}
+		return threads;
+	}
+
+	/**
+	 * 
+	 * @return numerical domains to analyze with. If there are several, methods
+	 *         are analyzed with the first one and re-analyzed with the next one
+	 *         as long as some call to sell cannot be proven safe.
+	 */
+	public List<AbstractDomain> getDomains() {
+		String value = this.prop.getProperty("DOMAIN", AbstractDomain.POLKA_STRICT.toString());
+		List<AbstractDomain> domains = new ArrayList<AbstractDomain>();
+		for (String domain : value.split(",")) {
+			domains.add(AbstractDomain.valueOf(domain.trim()));
+		}
+		return domains;
+	}
+
+	/**
+	 * 
+	 * @return true if each pack of syntactically related variables should be
+	 *         analyzed in a separate, smaller environment
+	 */
+	public boolean isVariablePackingEnabled() {
+		return this.getBooleanProperty("VARIABLE_PACKING", false);
+	}
+
+	/**
+	 * 
+	 * @return true if variables should be forgotten as soon as no later
+	 *         statement reads them
+	 */
+	public boolean isLivenessProjectionEnabled() {
+		return this.getBooleanProperty("LIVENESS_PROJECTION", false);
+	}
+
+	/**
+	 * 
+	 * @return true if the fixpoint should be computed by iterating a weak
+	 *         topological order of each method (FIXPOINT_STRATEGY=WTO) instead
+	 *         of Soot's worklist (FIXPOINT_STRATEGY=WORKLIST)
+	 */
+	public boolean isWeakTopologicalOrderEnabled() {
+		String value = this.prop.getProperty("FIXPOINT_STRATEGY", "WORKLIST").trim();
+		if (value.equals("WTO")) {
+			return true;
+		} else if (value.equals("WORKLIST")) {
+			return false;
+		}
+		logger.error("Invalid value for FIXPOINT_STRATEGY: {}", value);
+		throw new RuntimeException("Invalid fixpoint strategy: " + value);
+	}
+
+	/**
+	 * 
+	 * @return number of merges at a loop head before widening is applied there
+	 */
+	public int getWideningThreshold() {
+		return this.getIntProperty("WIDENING_THRESHOLD", 6);
+	}
+
+	/**
+	 * 
+	 * @return additional merges before widening, per nesting depth of the loop
+	 *         head beyond the outermost loop (inner loops are re-entered on every
+	 *         outer iteration and often stabilize without widening)
+	 */
+	public int getWideningDepthDelay() {
+		return this.getIntProperty("WIDENING_DEPTH_DELAY", 0);
+	}
+
+	/**
+	 * 
+	 * @return true if widening should preserve the bounds compared against in
+	 *         conditions of the analyzed method (widening with thresholds)
+	 */
+	public boolean isWideningWithThresholdsEnabled() {
+		return this.getBooleanProperty("WIDENING_THRESHOLDS", false);
+	}
+
+	/**
+	 * 
+	 * @return number of descending iterations after each loop has stabilized
+	 *         (only applied with FIXPOINT_STRATEGY=WTO)
+	 */
+	public int getNarrowingIterations() {
+		return this.getIntProperty("NARROWING_ITERATIONS", 0);
+	}
+
+	/**
+	 * 
+	 * @return a description of all settings above that affect widening, e.g.,
+	 *         for cache keys
+	 */
+	public String getWideningSettings() {
+		return "threshold=" + this.getWideningThreshold() + ",depthDelay=" + this.getWideningDepthDelay()
+				+ ",thresholds=" + this.isWideningWithThresholdsEnabled() + ",narrowing="
+				+ this.getNarrowingIterations();
+	}
+
+	/**
+	 * 
+	 * @return true if the integer returned by a call to another method of the
+	 *         analyzed class should be related to the call's arguments using a
+	 *         summary of the callee (see
+	 *         {@link ch.ethz.rse.numerical.SummaryTable}), instead of being
+	 *         unconstrained
+	 */
+	public boolean isInterproceduralEnabled() {
+		return this.getBooleanProperty("INTERPROCEDURAL_SUMMARIES", false);
+	}
+
+	/**
+	 * 
+	 * @return true if the calls to sell of each method should be checked as
+	 *         soon as its analysis finishes, and the analyses of the remaining
+	 *         methods skipped once every verified property is refuted
+	 */
+	public boolean isFailFastEnabled() {
+		return this.getBooleanProperty("FAIL_FAST", false);
+	}
+
+	/**
+	 * 
+	 * @return true if methods containing no call to sell should not be
+	 *         analyzed, as no property can be violated in them
+	 */
+	public boolean isSellPruningEnabled() {
+		return this.getBooleanProperty("SELL_PRUNING", true);
+	}
+
+	/**
+	 * 
+	 * @return true if methods should only be analyzed on the variables of their
+	 *         backward slice with respect to calls to sell (see
+	 *         {@link ch.ethz.rse.verify.Slicer})
+	 */
+	public boolean isSlicingEnabled() {
+		return this.getBooleanProperty("SLICING", false);
+	}
+
+	/**
+	 * 
+	 * @return true if {@link ch.ethz.rse.numerical.NumericalStateWrapper#equals}
+	 *         should cross-check equality against inclusion (for debugging
+	 *         Apron, doubles the cost of each comparison)
+	 */
+	public boolean isStateSanityCheckEnabled() {
+		return this.getBooleanProperty("STATE_SANITY_CHECK", false);
+	}
+
+	/**
+	 * 
+	 * @return true if equal states at the fixpoint should share a single Apron
+	 *         element once an analysis finishes. This shrinks the results kept
+	 *         until all methods are checked, not the peak memory of the
+	 *         fixpoint computation itself, at the cost of hashing each state
+	 *         once.
+	 */
+	public boolean isStateInterningEnabled() {
+		return this.getBooleanProperty("INTERN_STATES", false);
+	}
+
+	/**
+	 * 
+	 * @return directory of the persistent verdict cache, or null if verdicts
+	 *         should not be cached
+	 */
+	public String getVerdictCacheDir() {
+		return this.prop.getProperty("VERDICT_CACHE_DIR");
+	}
+
+	/**
+	 * Overrides a property loaded from {@link #propertiesFile}, e.g., from the
+	 * command line
+	 * 
+	 * @param key
+	 * @param value
+	 */
+	public void setProperty(String key, String value) {
+		logger.debug("Overriding {}={}", key, value);
+		this.prop.setProperty(key, value);
+	}
+
+	private boolean getBooleanProperty(String key, boolean defaultValue) {
+		String value = this.prop.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		return Boolean.parseBoolean(value.trim());
+	}
+
+	private int getIntProperty(String key, int defaultValue) {
+		String value = this.prop.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			logger.error("Invalid value for {}: {}", key, value);
+			throw new RuntimeException(e);
+		}
+	}
+
 }
@@ -6,8 +6,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import soot.SootMethod;
 
-import java.util.HashMap;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public abstract class AVerifier {
@@ -15,9 +19,11 @@ public abstract class AVerifier {
 	private static final Logger logger = LoggerFactory.getLogger(AVerifier.class);
 	
 	/**
-	 * result of running numerical analysis, per method
+	 * result of running numerical analysis, per method (may be populated
+	 * concurrently). Holds one analysis per variable pack if variable packing is
+	 * enabled, and a single analysis otherwise.
 	 */
-	protected final Map<SootMethod, NumericalAnalysis> numericalAnalysis = new HashMap<SootMethod, NumericalAnalysis>();
+	protected final Map<SootMethod, List<NumericalAnalysis>> numericalAnalysis = new ConcurrentHashMap<SootMethod, List<NumericalAnalysis>>();
 
 	/**
 	 * 
@@ -27,8 +33,64 @@ public abstract class AVerifier {
 	public boolean check(VerificationProperty property) {
 		long startTime = System.nanoTime();
 
-		this.runNumericalAnalysis(property);
+		this.runNumericalAnalysis(EnumSet.of(property));
+		boolean ret = this.checkAnalyzed(property);
 
+		long endTime = System.nanoTime();
+		long durationMilliseconds = (endTime - startTime) / 1000000;
+		logger.debug("Runtime: Checked property {} in {}ms", property, durationMilliseconds);
+
+		return ret;
+	}
+
+	/**
+	 * Checks all given properties based on a single numerical analysis per method
+	 * 
+	 * @param properties
+	 * @return for each property in <code>properties</code>, true if it is SAFE,
+	 *         false if it may be UNSAFE
+	 */
+	public Map<VerificationProperty, Boolean> check(Set<VerificationProperty> properties) {
+		long startTime = System.nanoTime();
+
+		this.runNumericalAnalysis(properties);
+
+		Map<VerificationProperty, Boolean> ret = new EnumMap<VerificationProperty, Boolean>(VerificationProperty.class);
+		for (VerificationProperty property : properties) {
+			ret.put(property, this.checkAnalyzed(property));
+		}
+
+		long endTime = System.nanoTime();
+		long durationMilliseconds = (endTime - startTime) / 1000000;
+		logger.debug("Runtime: Checked properties {} in {}ms", properties, durationMilliseconds);
+
+		return ret;
+	}
+
+	/**
+	 * Only OVERALL_PROFIT extends the analysis (by tracking overall_profit), so
+	 * its result can also answer NON_NEGATIVE and ITEM_PROFIT.
+	 * 
+	 * @param properties properties about to be verified
+	 * @return the property to run the numerical analysis for
+	 */
+	protected static VerificationProperty analysisProperty(Set<VerificationProperty> properties) {
+		if (properties.isEmpty()) {
+			throw new IllegalArgumentException("No property to verify");
+		}
+		if (properties.contains(VerificationProperty.OVERALL_PROFIT)) {
+			return VerificationProperty.OVERALL_PROFIT;
+		}
+		return properties.iterator().next();
+	}
+
+	/**
+	 * 
+	 * @param property
+	 * @return true if <code>property</code> is SAFE according to
+	 *         {@link #numericalAnalysis}, false if it may be UNSAFE
+	 */
+	private boolean checkAnalyzed(VerificationProperty property) {
 		boolean ret;
 		switch (property) {
 		case NON_NEGATIVE:
@@ -43,11 +105,6 @@ public abstract class AVerifier {
 		default:
 			throw new UnsupportedOperationException(property.toString());
 		}
-
-		long endTime = System.nanoTime();
-		long durationMilliseconds = (endTime - startTime) / 1000000;
-		logger.debug("Runtime: Checked property {} in {}ms", property, durationMilliseconds);
-
 		return ret;
 	}
 
@@ -70,9 +127,9 @@ public abstract class AVerifier {
 	protected abstract boolean checkOverallProfit();
 
 	/**
-	 * Populate {@link #numericalAnalysis}
+	 * Populate {@link #numericalAnalysis} (see {@link #analysisProperty(Set)})
 	 * 
-	 * @param property the property about to be verified
+	 * @param properties the properties about to be verified
 	 */
-	protected abstract void runNumericalAnalysis(VerificationProperty property);
+	protected abstract void runNumericalAnalysis(Set<VerificationProperty> properties);
 }
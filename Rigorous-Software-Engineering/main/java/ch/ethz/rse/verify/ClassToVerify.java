@@ -2,7 +2,11 @@ package ch.ethz.rse.verify;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 
 /**
@@ -78,4 +82,30 @@ public class ClassToVerify {
 		return this.getName();
 	}
 
+	/**
+	 * 
+	 * @param classPath   path to the root of the project containing the classes
+	 * @param packageName package to search (including sub-packages)
+	 * @return fully qualified names of all top-level classes in
+	 *         <code>packageName</code>, sorted
+	 * @throws FileNotFoundException
+	 */
+	public static List<String> findClasses(File classPath, String packageName) throws FileNotFoundException {
+		File packageDir = new File(classPath, packageName.replace(".", "/"));
+		if (!packageDir.isDirectory()) {
+			throw new FileNotFoundException(packageDir.getAbsolutePath());
+		}
+		List<String> classes = new ArrayList<String>();
+		for (File f : FileUtils.listFiles(packageDir, new String[] { "class" }, true)) {
+			String relativePath = classPath.toURI().relativize(f.toURI()).getPath();
+			if (relativePath.contains("$")) {
+				// skip nested and anonymous classes
+				continue;
+			}
+			classes.add(FilenameUtils.removeExtension(relativePath).replace("/", "."));
+		}
+		Collections.sort(classes);
+		return classes;
+	}
+
 }
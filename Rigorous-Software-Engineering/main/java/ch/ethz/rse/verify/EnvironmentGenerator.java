@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import com.google.common.collect.Iterables;
 
@@ -37,6 +38,11 @@ public class EnvironmentGenerator {
 
 	private final PointsToInitializer pointsTo;
 
+	/**
+	 * Variables to include, or null to include all integer variables
+	 */
+	private final Set<String> pack;
+
 	private static final Logger logger = LoggerFactory.getLogger(EnvironmentGenerator.class);
 
 	/**
@@ -51,8 +57,19 @@ public class EnvironmentGenerator {
 	 * @param method
 	 */
 	public EnvironmentGenerator(SootMethod method, PointsToInitializer pointsTo) {
+		this(method, pointsTo, null);
+	}
+
+	/**
+	 * 
+	 * @param method
+	 * @param pack   variables to include (see {@link VariablePacker}), or null to
+	 *               include all integer variables
+	 */
+	public EnvironmentGenerator(SootMethod method, PointsToInitializer pointsTo, Set<String> pack) {
 		this.method = method;
 		this.pointsTo = pointsTo;
+		this.pack = pack;
 
 		// populate this.ints
 		populateInts();
@@ -76,7 +93,8 @@ public class EnvironmentGenerator {
 
                 if (left instanceof JimpleLocal) {
                     JimpleLocal local = (JimpleLocal) left;
-                    if (local.getType() instanceof IntegerType && !ints.contains(local.getName())) {
+                    if (local.getType() instanceof IntegerType && !ints.contains(local.getName())
+                            && (pack == null || pack.contains(local.getName()))) {
                         ints.add(local.getName());
                         logger.debug("Added integer variable: " + local.getName());
                     }
@@ -0,0 +1,173 @@
+package ch.ethz.rse.verify;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.IntegerType;
+import soot.SootHelper;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.internal.JIfStmt;
+import soot.jimple.internal.JInvokeStmt;
+import soot.jimple.internal.JimpleLocal;
+import soot.toolkits.graph.MHGPostDominatorsFinder;
+import soot.toolkits.graph.UnitGraph;
+
+/**
+ * Backward slice of a method with respect to its calls to sell: the integer
+ * variables that may influence the arguments of sell, either through
+ * assignments or through conditions of branches guarding statements of the
+ * slice. A condition is also kept if it constrains a variable of the slice.
+ *
+ * Analyzing only the variables of the slice (see
+ * {@link ch.ethz.rse.numerical.NumericalAnalysis}) ignores all other
+ * assignments and conditions. Assignments to references, including Frog
+ * allocations, are never sliced away as they are handled by the pointer
+ * analysis.
+ */
+public class Slicer {
+
+	private static final Logger logger = LoggerFactory.getLogger(Slicer.class);
+
+	/**
+	 * Variables in the slice
+	 */
+	private final Set<String> variables = new LinkedHashSet<String>();
+
+	/**
+	 * Statements in the slice
+	 */
+	private final Set<Unit> statements = new LinkedHashSet<Unit>();
+
+	/**
+	 *
+	 * @param method      method to slice
+	 * @param trackProfit true if overall_profit is tracked, which is then part of
+	 *                    the slice
+	 */
+	public Slicer(SootMethod method, boolean trackProfit) {
+		UnitGraph g = SootHelper.getUnitGraph(method);
+
+		// seeds: calls to sell and their arguments
+		for (Unit u : g) {
+			if (u instanceof JInvokeStmt && SootHelper.isSellCall(((JInvokeStmt) u).getInvokeExpr())) {
+				this.statements.add(u);
+				Value argument = ((JInvokeStmt) u).getInvokeExpr().getArg(0);
+				this.variables.addAll(SootHelper.getIntLocalNames(argument));
+			}
+		}
+		if (trackProfit) {
+			this.variables.add(VariablePacker.OVERALL_PROFIT);
+		}
+
+		// statements each branch may guard
+		MHGPostDominatorsFinder<Unit> postDominators = new MHGPostDominatorsFinder<Unit>(g);
+		Map<Unit, Set<Unit>> guarded = new HashMap<Unit, Set<Unit>>();
+		for (Unit u : g) {
+			if (u instanceof JIfStmt) {
+				guarded.put(u, Slicer.guarded(g, postDominators, u));
+			}
+		}
+
+		// close under dependencies
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (Unit u : g) {
+				if (this.statements.contains(u)) {
+					continue;
+				}
+				List<String> uses;
+				if (u instanceof DefinitionStmt) {
+					Value left = ((DefinitionStmt) u).getLeftOp();
+					if (!(left instanceof JimpleLocal && left.getType() instanceof IntegerType
+							&& this.variables.contains(((JimpleLocal) left).getName()))) {
+						continue;
+					}
+					uses = SootHelper.getIntLocalNames(((DefinitionStmt) u).getRightOp());
+				} else if (u instanceof JIfStmt) {
+					uses = SootHelper.getIntLocalNames(((JIfStmt) u).getCondition());
+					if (Collections.disjoint(guarded.get(u), this.statements)
+							&& !Slicer.intersects(uses, this.variables)) {
+						continue;
+					}
+				} else {
+					continue;
+				}
+				this.statements.add(u);
+				this.variables.addAll(uses);
+				changed = true;
+			}
+		}
+
+		logger.debug("Sliced {} to {} of {} statements, variables {}", method.getName(), this.statements.size(),
+				method.getActiveBody().getUnits().size(), this.variables);
+	}
+
+	/**
+	 *
+	 * @return the integer variables in the slice (and overall_profit if
+	 *         tracked)
+	 */
+	public Set<String> getVariables() {
+		return this.variables;
+	}
+
+	/**
+	 *
+	 * @return the calls to sell, and the assignments and conditions they depend
+	 *         on
+	 */
+	public Set<Unit> getStatements() {
+		return this.statements;
+	}
+
+	/**
+	 * 
+	 * @param g
+	 * @param postDominators post-dominators in <code>g</code>
+	 * @param branch
+	 * @return the units reachable from <code>branch</code> which do not
+	 *         post-dominate it, i.e., which may or may not execute depending on
+	 *         the condition of <code>branch</code> (a superset of the units
+	 *         control dependent on <code>branch</code>)
+	 */
+	private static Set<Unit> guarded(UnitGraph g, MHGPostDominatorsFinder<Unit> postDominators, Unit branch) {
+		Set<Unit> reachable = new HashSet<Unit>();
+		Deque<Unit> todo = new ArrayDeque<Unit>(g.getSuccsOf(branch));
+		while (!todo.isEmpty()) {
+			Unit u = todo.pop();
+			if (reachable.add(u)) {
+				todo.addAll(g.getSuccsOf(u));
+			}
+		}
+		Set<Unit> ret = new HashSet<Unit>();
+		for (Unit u : reachable) {
+			if (!postDominators.isDominatedBy(branch, u)) {
+				ret.add(u);
+			}
+		}
+		return ret;
+	}
+
+	private static boolean intersects(List<String> names, Set<String> variables) {
+		for (String name : names) {
+			if (variables.contains(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
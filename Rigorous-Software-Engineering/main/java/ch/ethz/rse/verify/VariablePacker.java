@@ -0,0 +1,158 @@
+package ch.ethz.rse.verify;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import soot.IntegerType;
+import soot.SootHelper;
+import soot.SootMethod;
+import soot.Unit;
+import soot.Value;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.InvokeExpr;
+import soot.jimple.internal.JIfStmt;
+import soot.jimple.internal.JInvokeStmt;
+import soot.jimple.internal.JimpleLocal;
+
+/**
+ * Splits the integer variables of a method into packs of syntactically related
+ * variables. Two variables are related if they occur in the same assignment
+ * (e.g., as operands of a {@link soot.jimple.internal.JAddExpr} or
+ * {@link soot.jimple.internal.JMulExpr}), in the same {@link JIfStmt}
+ * condition, or (when tracking overall_profit) as arguments of calls to sell.
+ * 
+ * Every statement only mentions variables of a single pack, so each pack can be
+ * analyzed on its own, using a much smaller environment. Relations between
+ * variables of different packs are lost.
+ */
+public class VariablePacker {
+
+	private static final Logger logger = LoggerFactory.getLogger(VariablePacker.class);
+
+	/**
+	 * Name of the variable tracking the overall profit
+	 */
+	public static final String OVERALL_PROFIT = "overall_profit";
+
+	/**
+	 * Union-find parent of each variable
+	 */
+	private final Map<String, String> parent = new HashMap<String, String>();
+
+	/**
+	 * Variables passed to sell (these are the only ones the verifier reads)
+	 */
+	private final Set<String> sellArguments = new LinkedHashSet<String>();
+
+	private final List<Set<String>> packs;
+
+	/**
+	 * 
+	 * @param method      method to split
+	 * @param trackProfit true if overall_profit is tracked, which relates all
+	 *                    arguments of calls to sell
+	 */
+	public VariablePacker(SootMethod method, boolean trackProfit) {
+		for (Unit u : method.getActiveBody().getUnits()) {
+			if (u instanceof DefinitionStmt) {
+				DefinitionStmt sd = (DefinitionStmt) u;
+				Value left = sd.getLeftOp();
+				if (left instanceof JimpleLocal && left.getType() instanceof IntegerType) {
+					String leftName = ((JimpleLocal) left).getName();
+					this.find(leftName);
+					for (String name : SootHelper.getIntLocalNames(sd.getRightOp())) {
+						this.union(leftName, name);
+					}
+				}
+			} else if (u instanceof JIfStmt) {
+				this.unionAll(SootHelper.getIntLocalNames(((JIfStmt) u).getCondition()));
+			} else if (u instanceof JInvokeStmt && SootHelper.isSellCall(((JInvokeStmt) u).getInvokeExpr())) {
+				InvokeExpr invokeExpr = ((JInvokeStmt) u).getInvokeExpr();
+				for (String name : SootHelper.getIntLocalNames(invokeExpr.getArg(0))) {
+					this.sellArguments.add(name);
+					this.find(name);
+					if (trackProfit) {
+						this.union(OVERALL_PROFIT, name);
+					}
+				}
+			}
+		}
+		if (trackProfit) {
+			this.find(OVERALL_PROFIT);
+		}
+
+		// collect packs
+		Map<String, Set<String>> byRoot = new LinkedHashMap<String, Set<String>>();
+		for (String name : this.parent.keySet()) {
+			String root = this.find(name);
+			if (!byRoot.containsKey(root)) {
+				byRoot.put(root, new LinkedHashSet<String>());
+			}
+			byRoot.get(root).add(name);
+		}
+		this.packs = new ArrayList<Set<String>>(byRoot.values());
+		logger.debug("Split {} into packs {}", method.getName(), this.packs);
+	}
+
+	/**
+	 * 
+	 * @return all packs
+	 */
+	public List<Set<String>> getPacks() {
+		return this.packs;
+	}
+
+	/**
+	 * 
+	 * @return the packs containing a variable the verifier reads, i.e., an
+	 *         argument of sell or overall_profit. Other packs cannot influence
+	 *         any verdict.
+	 */
+	public List<Set<String>> getRelevantPacks() {
+		List<Set<String>> ret = new ArrayList<Set<String>>();
+		for (Set<String> pack : this.packs) {
+			if (pack.contains(OVERALL_PROFIT) || !Collections.disjoint(pack, this.sellArguments)) {
+				ret.add(pack);
+			}
+		}
+		return ret;
+	}
+
+	private void unionAll(List<String> names) {
+		for (String name : names) {
+			this.find(name);
+			this.union(names.get(0), name);
+		}
+	}
+
+	private void union(String a, String b) {
+		String ra = this.find(a);
+		String rb = this.find(b);
+		if (!ra.equals(rb)) {
+			this.parent.put(ra, rb);
+		}
+	}
+
+	private String find(String name) {
+		String p = this.parent.get(name);
+		if (p == null) {
+			this.parent.put(name, name);
+			return name;
+		}
+		if (p.equals(name)) {
+			return name;
+		}
+		String root = this.find(p);
+		this.parent.put(name, root);
+		return root;
+	}
+}
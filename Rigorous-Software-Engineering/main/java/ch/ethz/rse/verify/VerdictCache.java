@@ -0,0 +1,160 @@
+package ch.ethz.rse.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import ch.ethz.rse.VerificationProperty;
+import ch.ethz.rse.pointer.PointsToInitializer;
+import ch.ethz.rse.utils.Configuration;
+import ch.ethz.rse.utils.FileUtilsWrapper;
+import soot.Local;
+import soot.SootMethod;
+import soot.jimple.internal.JInvokeStmt;
+import soot.jimple.internal.JVirtualInvokeExpr;
+
+/**
+ * Persistent on-disk cache of per-method verdicts. An entry is keyed by a hash
+ * of everything the verdicts of a method depend on: the checked property and
+ * the property the method was analyzed for, the Jimple body of the method, the production costs of the frogs each call to sell may
+ * be invoked on, and the analysis settings. Changing any of these (including
+ * the points-to results) yields a different key, so stale entries are never
+ * read.
+ */
+public class VerdictCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(VerdictCache.class);
+
+	/**
+	 * Bump whenever the analysis changes in a way that affects verdicts
+	 */
+	private static final String VERSION = "1";
+
+	/**
+	 * Directory holding one file per entry, null if caching is disabled
+	 */
+	private final File dir;
+
+	/**
+	 * 
+	 * @param dir directory holding the cache, or null to disable caching
+	 */
+	public VerdictCache(File dir) {
+		this.dir = dir;
+		if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+			throw new RuntimeException("Cannot create cache directory " + dir.getAbsolutePath());
+		}
+	}
+
+	/**
+	 * 
+	 * @return the cache configured by VERDICT_CACHE_DIR (disabled if unset)
+	 */
+	public static VerdictCache fromConfiguration() {
+		String dir = Configuration.props.getVerdictCacheDir();
+		return new VerdictCache(dir == null ? null : new File(dir));
+	}
+
+	public boolean isEnabled() {
+		return this.dir != null;
+	}
+
+	/**
+	 * 
+	 * @param method    analyzed method
+	 * @param sells     calls to sell in <code>method</code>, in order
+	 * @param property  checked property
+	 * @param analyzed  property <code>method</code> was analyzed for (see
+	 *                  {@link AVerifier#analysisProperty(java.util.Set)}), which
+	 *                  determines the tracked variables
+	 * @param pointsTo  points-to results for the class of <code>method</code>
+	 * @param settings  description of analysis settings affecting the verdicts
+	 * @return the key of the verdicts of <code>method</code>
+	 */
+	public String key(SootMethod method, List<JInvokeStmt> sells, VerificationProperty property,
+			VerificationProperty analyzed, PointsToInitializer pointsTo, String settings) {
+		Hasher h = Hashing.sha256().newHasher();
+		h.putString(VERSION, StandardCharsets.UTF_8).putChar('\n');
+		h.putString(settings, StandardCharsets.UTF_8).putChar('\n');
+		h.putString(property.toString(), StandardCharsets.UTF_8).putChar('\n');
+		h.putString(analyzed.toString(), StandardCharsets.UTF_8).putChar('\n');
+		h.putString(method.getSignature(), StandardCharsets.UTF_8).putChar('\n');
+		h.putString(method.getActiveBody().toString(), StandardCharsets.UTF_8).putChar('\n');
+		for (JInvokeStmt sell : sells) {
+			// production costs of all frogs this call may sell
+			Local base = (Local) ((JVirtualInvokeExpr) sell.getInvokeExpr()).getBase();
+			int[] costs = pointsTo.pointsTo(base).getSortedArguments();
+			h.putString(Arrays.toString(costs), StandardCharsets.UTF_8).putChar('\n');
+		}
+		return h.hash().toString();
+	}
+
+	/**
+	 * 
+	 * @param key
+	 * @return the cached verdicts for <code>key</code>, or null if there are none
+	 */
+	public boolean[] get(String key) {
+		if (!this.isEnabled()) {
+			return null;
+		}
+		File f = this.file(key);
+		if (!f.isFile()) {
+			return null;
+		}
+		List<String> lines = FileUtilsWrapper.readFileInList(f.getPath());
+		if (lines.size() != 1) {
+			logger.warn("Ignoring corrupt cache entry {}", f);
+			return null;
+		}
+		String line = lines.get(0);
+		boolean[] verdicts = new boolean[line.length()];
+		for (int i = 0; i < verdicts.length; i++) {
+			verdicts[i] = line.charAt(i) == '1';
+		}
+		return verdicts;
+	}
+
+	/**
+	 * Stores <code>verdicts</code> under <code>key</code>
+	 * 
+	 * @param key
+	 * @param verdicts
+	 */
+	public void put(String key, boolean[] verdicts) {
+		if (!this.isEnabled()) {
+			return;
+		}
+		StringBuilder sb = new StringBuilder();
+		for (boolean verdict : verdicts) {
+			sb.append(verdict ? '1' : '0');
+		}
+		sb.append('\n');
+		try {
+			// write to a temporary file first so concurrent readers never see a
+			// partial entry
+			Path tmp = Files.createTempFile(this.dir.toPath(), key, ".tmp");
+			Files.write(tmp, sb.toString().getBytes(StandardCharsets.UTF_8));
+			Files.move(tmp, this.file(key).toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// the cache is an optimization only
+			logger.warn("Failed to write cache entry {}: {}", key, e.toString());
+		}
+	}
+
+	private File file(String key) {
+		return new File(this.dir, key + ".verdicts");
+	}
+}
@@ -1,8 +1,18 @@
 package ch.ethz.rse.verify;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,11 +27,15 @@ import apron.Texpr1BinNode;
 import apron.Texpr1CstNode;
 import apron.Texpr1Node;
 import apron.Texpr1VarNode;
+import ch.ethz.rse.VerificationMetrics;
 import ch.ethz.rse.VerificationProperty;
+import ch.ethz.rse.numerical.AbstractDomain;
 import ch.ethz.rse.numerical.NumericalAnalysis;
 import ch.ethz.rse.numerical.NumericalStateWrapper;
-import ch.ethz.rse.pointer.FrogInitializer;
+import ch.ethz.rse.numerical.SummaryTable;
+import ch.ethz.rse.pointer.InitializerSet;
 import ch.ethz.rse.pointer.PointsToInitializer;
+import ch.ethz.rse.utils.Configuration;
 import ch.ethz.rse.utils.Constants;
 import polyglot.ast.Call;
 import soot.Local;
@@ -60,215 +74,673 @@ public class Verifier extends AVerifier {
 	 */
 	private final PointsToInitializer pointsTo;
 
+	/**
+	 * number of worker threads running {@link NumericalAnalysis}
+	 */
+	private final int threads;
+
+	/**
+	 * numerical domains to analyze with, from cheap to precise
+	 */
+	private final List<AbstractDomain> domains;
+
+	/**
+	 * property the methods are analyzed for, see
+	 * {@link AVerifier#analysisProperty(Set)}
+	 */
+	private VerificationProperty analysisProperty;
+
+	/**
+	 * true if each pack of related variables is analyzed separately (see
+	 * {@link VariablePacker})
+	 */
+	private final boolean packing;
+
+	/**
+	 * summaries of the methods of {@link #c}, or null if calls are not
+	 * summarized
+	 */
+	private final SummaryTable summaries;
+
+	/**
+	 * persistent verdicts of previously analyzed method bodies
+	 */
+	private final VerdictCache cache;
+
+	/**
+	 * per-method verdicts (see {@link #getVerdicts(SootMethod, VerificationProperty)}),
+	 * per property
+	 */
+	private final Map<VerificationProperty, Map<SootMethod, boolean[]>> verdicts = new EnumMap<VerificationProperty, Map<SootMethod, boolean[]>>(VerificationProperty.class);
+
+	/**
+	 * properties with an unsafe verdict in some method
+	 */
+	private final Set<VerificationProperty> refuted = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * true if each method is checked as soon as it is analyzed, see
+	 * {@link Configuration#isFailFastEnabled()}
+	 */
+	private final boolean failFast;
+
+	/**
+	 * true if methods without calls to sell are not analyzed, see
+	 * {@link Configuration#isSellPruningEnabled()}
+	 */
+	private final boolean pruning;
+
+	/**
+	 * true if methods are only analyzed on their backward slice (see
+	 * {@link Slicer})
+	 */
+	private final boolean slicing;
+
+	/**
+	 * statistics of all numerical analyses
+	 */
+	private final VerificationMetrics metrics;
+
 	/**
 	 * 
 	 * @param c class to verify
 	 */
 	public Verifier(SootClass c) {
+		this(c, Configuration.props.getAnalysisThreads());
+	}
+
+	/**
+	 * 
+	 * @param c       class to verify
+	 * @param threads number of worker threads analyzing the methods of
+	 *                <code>c</code>
+	 */
+	public Verifier(SootClass c, int threads) {
+		this(c, threads, new VerificationMetrics());
+	}
+
+	/**
+	 * 
+	 * @param c       class to verify
+	 * @param threads number of worker threads analyzing the methods of
+	 *                <code>c</code>
+	 * @param metrics receives the statistics of all numerical analyses
+	 */
+	public Verifier(SootClass c, int threads, VerificationMetrics metrics) {
 		logger.debug("Analyzing {}", c.getName());
 
 		this.c = c;
+		this.threads = threads;
+		this.metrics = metrics;
+		this.domains = Configuration.props.getDomains();
+		this.packing = Configuration.props.isVariablePackingEnabled();
+		this.failFast = Configuration.props.isFailFastEnabled();
+		this.pruning = Configuration.props.isSellPruningEnabled();
+		this.slicing = Configuration.props.isSlicingEnabled();
+		this.cache = VerdictCache.fromConfiguration();
+		for (VerificationProperty property : VerificationProperty.values()) {
+			this.verdicts.put(property, new ConcurrentHashMap<SootMethod, boolean[]>());
+		}
 
 		// pointer analysis
 		this.pointsTo = new PointsToInitializer(this.c);
+
+		if (Configuration.props.isInterproceduralEnabled()) {
+			// summaries are computed once and applied by all domains of the
+			// cascade, so use the most precise one
+			this.summaries = new SummaryTable(this.c, this.pointsTo, this.domains.get(this.domains.size() - 1));
+		} else {
+			this.summaries = null;
+		}
 	}
 
-	protected void runNumericalAnalysis(VerificationProperty property) {
-		// Loop through each method in the class 'c'
+	protected void runNumericalAnalysis(Set<VerificationProperty> properties) {
+		this.analysisProperty = AVerifier.analysisProperty(properties);
+
+		// Collect methods in the class 'c', skipping methods that are abstract,
+		// native, or phantom, methods without calls to sell, and methods whose
+		// verdicts are all cached
+		List<SootMethod> methods = new LinkedList<SootMethod>();
+		int pruned = 0;
 		for (SootMethod method : c.getMethods()) {
-			logger.debug("Running analysis on Method {}", method.getName());
-			// Skip methods that are abstract, native, or phantom
 			if (!method.isConcrete()) {
 				continue;
 			}
-			// Perform the numerical analysis on the current method
-			NumericalAnalysis numericalAnalysisInstance = new NumericalAnalysis(method, property, this.pointsTo);
-			this.numericalAnalysis.put(method, numericalAnalysisInstance);
+			if (this.pruning && Verifier.getSellStatements(method).isEmpty()) {
+				this.prune(method);
+				pruned++;
+			} else if (!this.lookupCache(method, properties)) {
+				methods.add(method);
+			}
 		}
-	}
+		logger.debug("Pruned {} methods without calls to sell", pruned);
 
-	@Override
-	public boolean checksNonNegative() {
-		// iterate over all analyzed methods
-		for (SootMethod m : this.numericalAnalysis.keySet()) {
-			logger.debug("Checking NonNegative Property on Method {}", m.getName());
-			NumericalAnalysis analysis = this.numericalAnalysis.get(m);
-			apron.Environment env = analysis.env;
-			apron.Manager man = analysis.man;
+		// summarize callees bottom-up before the analyses applying the
+		// summaries, independent call graph components in parallel
+		if (this.summaries != null && !methods.isEmpty()) {
+			this.summaries.computeAll(this.threads);
+		}
 
-			//iterate over all units of the analyzed methods
-			for(Unit u: m.getActiveBody().getUnits()){
-				//only look at units that are calls to sell(v)
-				if (!(u instanceof JInvokeStmt)) {
-					continue;
-				}
-				JInvokeStmt invokeStmt = (JInvokeStmt)u;
-				if(!(invokeStmt.getInvokeExpr() instanceof JVirtualInvokeExpr)){
-					continue;
+		if (this.threads <= 1 || methods.size() <= 1) {
+			for (SootMethod method : methods) {
+				if (this.allRefuted(properties)) {
+					logger.debug("All of {} refuted, skipping remaining methods", properties);
+					break;
 				}
-				JVirtualInvokeExpr sellExpr = (JVirtualInvokeExpr)invokeStmt.getInvokeExpr();
-				//get the state of the analysis result
-				NumericalStateWrapper afterFlow = analysis.getFlowBefore(u);
-				Abstract1 state = afterFlow.get();
-
-				//Test NON_NEGATIVE of the state by finding the local variable v
-				//that is passed into sell(v) and test v>=0
-				//check the argument passed into sell(v), there is only 1, so we get the one at index 0
-				Value v = sellExpr.getArg(0);
-				//if we pass a constant
-				if(v instanceof IntConstant){
-					IntConstant vConstant = (IntConstant) v;
-					logger.debug("The Value is an IntConstant with value {}", vConstant.value);
-					if(vConstant.value < 0){
-						return false;
-					}
-				}
-				//if we pass a local variable
-				else{
-					String vName = "";
-					if(v instanceof JimpleLocal){
-						vName = ((JimpleLocal)v).getName();
-						logger.debug("The Variable name vName is {} (JimpleLocal)", vName);
-					}
-					else if(v instanceof ParameterRef){
-						int paramIndex = ((ParameterRef)v).getIndex();
-						vName = m.getActiveBody().getParameterLocal(paramIndex).getName();
-						logger.debug("The Variable name vName is {} (ParameterRef)", vName);
-					}
-					else{
-						System.err.println("sell is called with neither local, constant or a parameter.");
-						return false;
-					}
-					
-					//encode constraint x>=0
-					Texpr1Node vNode = new Texpr1VarNode(vName);
-					Tcons1 constraint = new Tcons1(env, Tcons1.SUPEQ, vNode);
-					
-					//check if constraint is satisfied
-					try {
-						if(!state.satisfy(man, constraint)){
-							return false;
-						}
-					} catch (ApronException e) {
-						e.printStackTrace();
+				this.analyzeMethod(method, properties);
+			}
+			return;
+		}
+
+		// the analyses of different methods are independent: each one owns its
+		// Apron manager and only reads the shared points-to results
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(this.threads, methods.size()));
+		try {
+			List<Future<?>> futures = new LinkedList<Future<?>>();
+			for (SootMethod method : methods) {
+				futures.add(pool.submit(() -> {
+					// analyses still queued once all properties are refuted are
+					// skipped, analyses already running complete
+					if (!this.allRefuted(properties)) {
+						this.analyzeMethod(method, properties);
 					}
-				}
+				}));
+			}
+			for (Future<?> future : futures) {
+				Verifier.await(future);
 			}
+		} finally {
+			pool.shutdownNow();
 		}
-		return true;
 	}
 
+	/**
+	 * Perform the numerical analysis on a single method, and check it right
+	 * away if {@link #failFast} is set
+	 * 
+	 * @param method
+	 * @param properties the properties about to be verified
+	 */
+	private void analyzeMethod(SootMethod method, Set<VerificationProperty> properties) {
+		logger.debug("Running analysis on Method {}", method.getName());
+		this.metrics.addMethod(method);
+		this.numericalAnalysis.put(method, this.analyze(method, this.analysisProperty, this.domains.get(0)));
+		if (this.failFast) {
+			for (VerificationProperty property : properties) {
+				this.getVerdicts(method, property);
+			}
+		}
+	}
 
-	@Override
-	public boolean checkItemProfit() {
-		for(SootMethod m: this.numericalAnalysis.keySet()){
-			logger.debug("Checking NonNegative Property on Method {}", m.getName());
-			NumericalAnalysis analysis = this.numericalAnalysis.get(m);
-			apron.Environment env = analysis.env;
-			apron.Manager man = analysis.man;
+	/**
+	 * Records the verdicts of a method without calls to sell, which cannot
+	 * violate any property: there is no call to check, and overall_profit
+	 * stays 0
+	 * 
+	 * @param method
+	 */
+	private void prune(SootMethod method) {
+		this.metrics.addPrunedMethod(method);
+		for (VerificationProperty property : VerificationProperty.values()) {
+			boolean[] verdicts = property == VerificationProperty.OVERALL_PROFIT ? new boolean[] { true }
+					: new boolean[0];
+			this.verdicts.get(property).put(method, verdicts);
+		}
+	}
 
-			//iterate over all units of the analyzed methods
-			for(Unit u: m.getActiveBody().getUnits()){
-				//only look at units that are calls to sell(v)
-				if (!(u instanceof JInvokeStmt)) {
-					continue;
-				}
-				JInvokeStmt invokeStmt = (JInvokeStmt)u;
-				if(!(invokeStmt.getInvokeExpr() instanceof JVirtualInvokeExpr)){
-					continue;
+	/**
+	 * 
+	 * @param properties
+	 * @return true if {@link #failFast} is set and all <code>properties</code>
+	 *         are already known to be unsafe, so no further method needs to be
+	 *         analyzed
+	 */
+	private boolean allRefuted(Set<VerificationProperty> properties) {
+		return this.failFast && this.refuted.containsAll(properties);
+	}
+
+	/**
+	 * 
+	 * @param method
+	 * @param property
+	 * @param domain
+	 * @return the analyses of <code>method</code>, one per relevant variable pack
+	 *         if packing is enabled
+	 */
+	private List<NumericalAnalysis> analyze(SootMethod method, VerificationProperty property, AbstractDomain domain) {
+		List<NumericalAnalysis> ret = new ArrayList<NumericalAnalysis>();
+		boolean trackProfit = property == VerificationProperty.OVERALL_PROFIT;
+		Set<String> slice = this.slicing ? new Slicer(method, trackProfit).getVariables() : null;
+		if (!this.packing) {
+			ret.add(new NumericalAnalysis(method, property, this.pointsTo, domain, slice, this.summaries));
+		} else {
+			VariablePacker packer = new VariablePacker(method, trackProfit);
+			for (Set<String> pack : packer.getRelevantPacks()) {
+				if (slice != null) {
+					pack = new LinkedHashSet<String>(pack);
+					pack.retainAll(slice);
 				}
-				JVirtualInvokeExpr sellExpr = (JVirtualInvokeExpr)invokeStmt.getInvokeExpr();
-				//get the state of the analysis result
-				NumericalStateWrapper afterFlow = analysis.getFlowBefore(u);
-				Abstract1 state = afterFlow.get();
-				Value v = sellExpr.getArg(0);
+				ret.add(new NumericalAnalysis(method, property, this.pointsTo, domain, pack, this.summaries));
+			}
+		}
+		for (NumericalAnalysis analysis : ret) {
+			this.metrics.addAnalysis(method, analysis);
+		}
+		return ret;
+	}
 
-				Local baseNode = (Local) sellExpr.getBase();
+	/**
+	 * 
+	 * @param analyses analyses of the same method
+	 * @param name     variable name
+	 * @return the analysis tracking <code>name</code>, or null if there is none
+	 */
+	private static NumericalAnalysis analysisFor(List<NumericalAnalysis> analyses, String name) {
+		for (NumericalAnalysis analysis : analyses) {
+			if (analysis.env.hasVar(name)) {
+				return analysis;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Waits for <code>future</code>, rethrowing any exception raised by the
+	 * analysis it runs
+	 * 
+	 * @param future
+	 */
+	private static void await(Future<?> future) {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
 
-				List<FrogInitializer> frogInitializers = pointsTo.pointsTo(baseNode);
+	/**
+	 * 
+	 * @return statistics of all numerical analyses run so far
+	 */
+	public VerificationMetrics getMetrics() {
+		return this.metrics;
+	}
 
-				//should never be the case
-				if(frogInitializers.isEmpty()){
-					System.err.println("No frogs for this sell invocation.");
-					return false;
+	// PER-METHOD VERDICTS
+
+	/**
+	 * Loads the cached verdicts of <code>method</code> for all
+	 * <code>properties</code> into {@link #verdicts}
+	 * 
+	 * @param method
+	 * @param properties
+	 * @return true if the verdicts for all properties were cached, in which case
+	 *         <code>method</code> need not be analyzed
+	 */
+	private boolean lookupCache(SootMethod method, Set<VerificationProperty> properties) {
+		if (!this.cache.isEnabled()) {
+			return false;
+		}
+		boolean allCached = true;
+		for (VerificationProperty property : properties) {
+			boolean[] cached = this.cache.get(this.cacheKey(method, property));
+			if (cached == null) {
+				allCached = false;
+			} else {
+				logger.debug("Using cached {} verdicts for {}", property, method.getName());
+				this.verdicts.get(property).put(method, cached);
+				if (!Verifier.allTrue(cached)) {
+					this.refuted.add(property);
 				}
+			}
+		}
+		return allCached;
+	}
 
-				for(int i = 0; i < frogInitializers.size(); i++){
-					FrogInitializer frogInitializer = frogInitializers.get(i);
+	private String cacheKey(SootMethod method, VerificationProperty property) {
+		StringBuilder settings = new StringBuilder();
+		settings.append("domains=" + this.domains + ",packing=" + this.packing + ",liveness="
+				+ Configuration.props.isLivenessProjectionEnabled() + ",wto="
+				+ Configuration.props.isWeakTopologicalOrderEnabled() + ",widening="
+				+ Configuration.props.getWideningSettings() + ",summaries=" + (this.summaries != null)
+				+ ",slicing=" + this.slicing);
+		if (this.summaries != null) {
+			// verdicts also depend on the bodies of all callees
+			for (SootMethod callee : this.summaries.getTransitiveCallees(method)) {
+				settings.append("\n").append(callee.getSignature()).append("\n").append(callee.getActiveBody());
+			}
+		}
+		return this.cache.key(method, Verifier.getSellStatements(method), property, this.analysisProperty,
+				this.pointsTo, settings.toString());
+	}
 
-					int productionCost = frogInitializer.argument;
+	/**
+	 * 
+	 * @param property
+	 * @return true if no verdict for <code>property</code> in any method of
+	 *         {@link #c} is unsafe
+	 */
+	private boolean allSafe(VerificationProperty property) {
+		// with fail fast, the remaining methods may not have been analyzed
+		if (this.refuted.contains(property)) {
+			return false;
+		}
+		for (SootMethod m : c.getMethods()) {
+			if (!m.isConcrete()) {
+				continue;
+			}
+			if (!Verifier.allTrue(this.getVerdicts(m, property))) {
+				return false;
+			}
+		}
+		return true;
+	}
 
-					//now check item profit
-					if(v instanceof IntConstant){
-						int vValue = ((IntConstant)v).value;
-						if(vValue-productionCost < 0){
-							return false;
-						}
-					}
-					else{
-						String vName = "";
-						if(v instanceof JimpleLocal){
-							vName = ((JimpleLocal) v).getName();
-						}
-						else if(v instanceof ParameterRef){
-							int paramIndex = ((ParameterRef)v).getIndex();
-							vName = m.getActiveBody().getParameterLocal(paramIndex).getName();
-							logger.debug("The Variable name vName is {}", vName);
-						}
-						else{
-							System.err.println("sell is called with neither local, constant or a parameter.");
-							return false;
-						}
-
-						//encode constraint v-productionCost >= 0
-						Coeff productionValueCoeff= new MpqScalar(-productionCost);
-						Texpr1Node productionValueNode = new Texpr1CstNode(productionValueCoeff);
-						Texpr1Node vNode = new Texpr1VarNode(vName);
-						Texpr1Node itemProfitNode = new Texpr1BinNode(Texpr1BinNode.OP_ADD, vNode, productionValueNode);
-						Tcons1 constraint = new Tcons1(env, Tcons1.SUPEQ, itemProfitNode);
-						
-						//check if constraint is satisfied
-						try {
-							if(!state.satisfy(man, constraint)){
-								return false;
-							}
-						} catch (ApronException e) {
-							e.printStackTrace();
-						}
-					}
-				}
+	/**
+	 * 
+	 * @param m
+	 * @param property
+	 * @return the verdicts for <code>property</code> in <code>m</code>, one per
+	 *         call to sell (or a single one for OVERALL_PROFIT)
+	 */
+	private boolean[] getVerdicts(SootMethod m, VerificationProperty property) {
+		Map<SootMethod, boolean[]> perMethod = this.verdicts.get(property);
+		boolean[] ret = perMethod.get(m);
+		if (ret != null) {
+			return ret;
+		}
+
+		List<NumericalAnalysis> analysis = this.numericalAnalysis.get(m);
+		ret = this.check(m, analysis, property);
+
+		// cascade: as long as some verdict is unsafe, re-analyze with the next,
+		// more precise domain. A call is safe if any domain proves it safe.
+		int next = analysis.isEmpty() ? this.domains.size() : this.domains.indexOf(analysis.get(0).domain) + 1;
+		while (!Verifier.allTrue(ret) && next < this.domains.size()) {
+			AbstractDomain domain = this.domains.get(next++);
+			logger.debug("Re-analyzing {} using {}", m.getName(), domain);
+			analysis = this.analyze(m, this.analysisProperty, domain);
+			this.numericalAnalysis.put(m, analysis);
+			boolean[] refined = this.check(m, analysis, property);
+			for (int i = 0; i < ret.length; i++) {
+				ret[i] = ret[i] || refined[i];
+			}
+		}
+
+		perMethod.put(m, ret);
+		if (!Verifier.allTrue(ret)) {
+			this.refuted.add(property);
+		}
+		if (this.cache.isEnabled()) {
+			this.cache.put(this.cacheKey(m, property), ret);
+		}
+		return ret;
+	}
+
+	/**
+	 * 
+	 * @param m
+	 * @param analysis result of analyzing <code>m</code>
+	 * @param property
+	 * @return the verdicts for <code>property</code> in <code>m</code> according
+	 *         to <code>analysis</code>
+	 */
+	private boolean[] check(SootMethod m, List<NumericalAnalysis> analysis, VerificationProperty property) {
+		switch (property) {
+		case NON_NEGATIVE:
+			return this.checkNonNegative(m, analysis);
+		case ITEM_PROFIT:
+			return this.checkItemProfit(m, analysis);
+		case OVERALL_PROFIT:
+			return new boolean[] { this.checkOverallProfit(m, analysis) };
+		default:
+			throw new UnsupportedOperationException(property.toString());
+		}
+	}
+
+	private static boolean allTrue(boolean[] verdicts) {
+		for (boolean verdict : verdicts) {
+			if (!verdict) {
+				return false;
 			}
 		}
 		return true;
 	}
 
+	/**
+	 * 
+	 * @param m
+	 * @return all calls to sell in <code>m</code>, in order
+	 */
+	private static List<JInvokeStmt> getSellStatements(SootMethod m) {
+		List<JInvokeStmt> ret = new LinkedList<JInvokeStmt>();
+		for (Unit u : m.getActiveBody().getUnits()) {
+			//only look at units that are calls to sell(v)
+			if (!(u instanceof JInvokeStmt)) {
+				continue;
+			}
+			JInvokeStmt invokeStmt = (JInvokeStmt) u;
+			if (!SootHelper.isSellCall(invokeStmt.getInvokeExpr())) {
+				continue;
+			}
+			ret.add(invokeStmt);
+		}
+		return ret;
+	}
+
+	/**
+	 * 
+	 * @param m
+	 * @param v argument of a call to sell in <code>m</code>
+	 * @return the name of the variable holding <code>v</code>, or null if
+	 *         <code>v</code> is neither a local nor a parameter
+	 */
+	private static String getVariableName(SootMethod m, Value v) {
+		if (v instanceof JimpleLocal) {
+			return ((JimpleLocal) v).getName();
+		} else if (v instanceof ParameterRef) {
+			int paramIndex = ((ParameterRef) v).getIndex();
+			return m.getActiveBody().getParameterLocal(paramIndex).getName();
+		}
+		System.err.println("sell is called with neither local, constant or a parameter.");
+		return null;
+	}
+
+	@Override
+	public boolean checksNonNegative() {
+		return this.allSafe(VerificationProperty.NON_NEGATIVE);
+	}
+
+	@Override
+	public boolean checkItemProfit() {
+		return this.allSafe(VerificationProperty.ITEM_PROFIT);
+	}
 
 	@Override
 	public boolean checkOverallProfit() {
-		for (SootMethod m : this.numericalAnalysis.keySet()){
-			logger.debug("Checking OverallProfit Property on Method {}", m.getName());
-			NumericalAnalysis analysis = this.numericalAnalysis.get(m);
+		return this.allSafe(VerificationProperty.OVERALL_PROFIT);
+	}
+
+	/**
+	 * 
+	 * @param m
+	 * @param analysis result of analyzing <code>m</code>
+	 * @return for each call to sell in <code>m</code>, true if its argument is
+	 *         non-negative
+	 */
+	private boolean[] checkNonNegative(SootMethod m, List<NumericalAnalysis> analyses) {
+		logger.debug("Checking NonNegative Property on Method {}", m.getName());
+
+		List<JInvokeStmt> sells = Verifier.getSellStatements(m);
+		boolean[] ret = new boolean[sells.size()];
+		int i = 0;
+		for (JInvokeStmt invokeStmt : sells) {
+			ret[i++] = this.checkNonNegative(m, analyses, invokeStmt);
+		}
+		return ret;
+	}
+
+	private boolean checkNonNegative(SootMethod m, List<NumericalAnalysis> analyses, JInvokeStmt invokeStmt) {
+		JVirtualInvokeExpr sellExpr = (JVirtualInvokeExpr) invokeStmt.getInvokeExpr();
+
+		//Test NON_NEGATIVE of the state by finding the local variable v
+		//that is passed into sell(v) and test v>=0
+		//check the argument passed into sell(v), there is only 1, so we get the one at index 0
+		Value v = sellExpr.getArg(0);
+		//if we pass a constant
+		if (v instanceof IntConstant) {
+			IntConstant vConstant = (IntConstant) v;
+			logger.debug("The Value is an IntConstant with value {}", vConstant.value);
+			return vConstant.value >= 0;
+		}
+		//if we pass a local variable
+		String vName = Verifier.getVariableName(m, v);
+		if (vName == null) {
+			return false;
+		}
+		logger.debug("The Variable name vName is {}", vName);
+
+		//get the state of the analysis result
+		NumericalAnalysis analysis = Verifier.analysisFor(analyses, vName);
+		if (analysis == null) {
+			return false;
+		}
+		apron.Environment env = analysis.env;
+		apron.Manager man = analysis.man;
+		NumericalStateWrapper afterFlow = analysis.getFlowBefore(invokeStmt);
+		Abstract1 state = afterFlow.get();
+
+		//encode constraint x>=0
+		Texpr1Node vNode = new Texpr1VarNode(vName);
+		Tcons1 constraint = new Tcons1(env, Tcons1.SUPEQ, vNode);
+
+		//check if constraint is satisfied
+		try {
+			return state.satisfy(man, constraint);
+		} catch (ApronException e) {
+			e.printStackTrace();
+			return true;
+		}
+	}
+
+	/**
+	 * 
+	 * @param m
+	 * @param analysis result of analyzing <code>m</code>
+	 * @return for each call to sell in <code>m</code>, true if its argument
+	 *         covers the production cost of every frog it may sell
+	 */
+	private boolean[] checkItemProfit(SootMethod m, List<NumericalAnalysis> analyses) {
+		logger.debug("Checking ItemProfit Property on Method {}", m.getName());
+
+		List<JInvokeStmt> sells = Verifier.getSellStatements(m);
+		boolean[] ret = new boolean[sells.size()];
+		int i = 0;
+		for (JInvokeStmt invokeStmt : sells) {
+			ret[i++] = this.checkItemProfit(m, analyses, invokeStmt);
+		}
+		return ret;
+	}
+
+	private boolean checkItemProfit(SootMethod m, List<NumericalAnalysis> analyses, JInvokeStmt invokeStmt) {
+		JVirtualInvokeExpr sellExpr = (JVirtualInvokeExpr) invokeStmt.getInvokeExpr();
+		Value v = sellExpr.getArg(0);
+
+		Local baseNode = (Local) sellExpr.getBase();
+
+		InitializerSet frogInitializers = pointsTo.pointsTo(baseNode);
+
+		//should never be the case
+		if (frogInitializers.isEmpty()) {
+			System.err.println("No frogs for this sell invocation.");
+			return false;
+		}
+
+		for (int i = 0; i < frogInitializers.size(); i++) {
+			int productionCost = frogInitializers.get(i).argument;
+
+			//now check item profit
+			if (v instanceof IntConstant) {
+				int vValue = ((IntConstant) v).value;
+				if (vValue - productionCost < 0) {
+					return false;
+				}
+				continue;
+			}
+			String vName = Verifier.getVariableName(m, v);
+			if (vName == null) {
+				return false;
+			}
+			logger.debug("The Variable name vName is {}", vName);
+
+			//get the state of the analysis result
+			NumericalAnalysis analysis = Verifier.analysisFor(analyses, vName);
+			if (analysis == null) {
+				return false;
+			}
 			apron.Environment env = analysis.env;
 			apron.Manager man = analysis.man;
-			//iterate over all units of the analyzed methods
-			Chain<Unit> units = m.getActiveBody().getUnits();
-			Unit lastUnit = units.getLast();
-
-			NumericalStateWrapper afterFlow = analysis.getFlowBefore(lastUnit);
+			NumericalStateWrapper afterFlow = analysis.getFlowBefore(invokeStmt);
 			Abstract1 state = afterFlow.get();
-			Texpr1Node overallProfit = new Texpr1VarNode("overall_profit");
-			// encode overall_profit >= 0
-			Tcons1 constraint = new Tcons1(env, Tcons1.SUPEQ, overallProfit);
+
+			//encode constraint v-productionCost >= 0
+			Coeff productionValueCoeff = new MpqScalar(-productionCost);
+			Texpr1Node productionValueNode = new Texpr1CstNode(productionValueCoeff);
+			Texpr1Node vNode = new Texpr1VarNode(vName);
+			Texpr1Node itemProfitNode = new Texpr1BinNode(Texpr1BinNode.OP_ADD, vNode, productionValueNode);
+			Tcons1 constraint = new Tcons1(env, Tcons1.SUPEQ, itemProfitNode);
+
+			//check if constraint is satisfied
 			try {
-				Interval interval = state.getBound(man, "overall_profit");
-				logger.debug("Interval of overall_profit: {}", interval.toString());
-				if(!state.satisfy(man, constraint)){
+				if (!state.satisfy(man, constraint)) {
 					return false;
 				}
 			} catch (ApronException e) {
-				logger.error("checkOverallProfit: ApronException!");
+				e.printStackTrace();
 			}
 		}
 		return true;
 	}
+
+	/**
+	 * 
+	 * @param m
+	 * @param analysis result of analyzing <code>m</code>
+	 * @return true if overall_profit is non-negative when <code>m</code> ends
+	 */
+	private boolean checkOverallProfit(SootMethod m, List<NumericalAnalysis> analyses) {
+		logger.debug("Checking OverallProfit Property on Method {}", m.getName());
+		NumericalAnalysis analysis = Verifier.analysisFor(analyses, "overall_profit");
+		if (analysis == null) {
+			return false;
+		}
+		apron.Environment env = analysis.env;
+		apron.Manager man = analysis.man;
+		//iterate over all units of the analyzed methods
+		Chain<Unit> units = m.getActiveBody().getUnits();
+		Unit lastUnit = units.getLast();
+
+		NumericalStateWrapper afterFlow = analysis.getFlowBefore(lastUnit);
+		Abstract1 state = afterFlow.get();
+		Texpr1Node overallProfit = new Texpr1VarNode("overall_profit");
+		// encode overall_profit >= 0
+		Tcons1 constraint = new Tcons1(env, Tcons1.SUPEQ, overallProfit);
+		try {
+			Interval interval = state.getBound(man, "overall_profit");
+			logger.debug("Interval of overall_profit: {}", interval.toString());
+			return state.satisfy(man, constraint);
+		} catch (ApronException e) {
+			logger.error("checkOverallProfit: ApronException!");
+			return true;
+		}
+	}
 }
@@ -1,10 +1,20 @@
 package soot;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ch.ethz.rse.utils.Configuration;
+import ch.ethz.rse.utils.Constants;
 import ch.ethz.rse.verify.ClassToVerify;
+import soot.jimple.InstanceInvokeExpr;
+import soot.jimple.InvokeExpr;
+import soot.jimple.internal.JimpleLocal;
 import soot.options.Options;
 import soot.toolkits.graph.BriefUnitGraph;
 import soot.toolkits.graph.UnitGraph;
@@ -41,13 +51,51 @@ public class SootHelper {
 		return sc;
 	}
 
+	/**
+	 * Load several classes into a single Scene and run the points-to analysis
+	 * once for all of them
+	 * 
+	 * @param cs the classes to test
+	 * @return the Soot representation of each class in cs, in the same order
+	 */
+	public static List<SootClass> loadClassesAndAnalyze(List<ClassToVerify> cs) {
+		List<SootClass> scs = SootHelper.loadClasses(cs);
+		SootHelper.runPointsToAnalysis();
+		return scs;
+	}
+
+	/**
+	 * Load the referenced classes and all related classes into a single Scene
+	 * 
+	 * @param cs the classes to test
+	 * @return the Soot representation of each class in cs, in the same order
+	 */
+	public static List<SootClass> loadClasses(List<ClassToVerify> cs) {
+		long startTime = System.nanoTime();
+
+		List<SootClass> scs = SootHelper.loadClassesInternal(cs);
+
+		long endTime = System.nanoTime();
+		long durationMilliseconds = (endTime - startTime) / 1000000;
+		logger.debug("Runtime: Loaded {} classes after {}ms", scs.size(), durationMilliseconds);
+
+		return scs;
+	}
+
 	private static SootClass loadClassInternal(ClassToVerify c) {
+		return SootHelper.loadClassesInternal(Collections.singletonList(c)).get(0);
+	}
+
+	private static List<SootClass> loadClassesInternal(List<ClassToVerify> cs) {
 		// sometimes, the wrong java version leads to weird behavior (bugs or
 		// performance issues)
 		logger.info("Using Java version {}", System.getProperty("java.version"));
 
-		String classesDir = c.getClassPath().toString();
-		String classToAnalyze = c.getPackageName();
+		// collect the roots of all projects containing classes to analyze
+		Set<String> classesDirs = new LinkedHashSet<String>();
+		for (ClassToVerify c : cs) {
+			classesDirs.add(c.getClassPath().toString());
+		}
 
 		// reset previously loaded classes (important for consecutive analysis)
 		logger.info("Resetting Soot.");
@@ -60,7 +108,7 @@ public class SootHelper {
 		}
 		String rt = javaHome + "/jre/lib/rt.jar";
 		String jce = javaHome + "/jre/lib/jce.jar";
-		String classpath = classesDir + ":" + rt + ":" + jce;
+		String classpath = String.join(":", classesDirs) + ":" + rt + ":" + jce;
 		// set classpath
 		logger.debug("Soot classpath:" + classpath);
 		Scene.v().setSootClassPath(classpath);
@@ -79,24 +127,36 @@ public class SootHelper {
 		// produce more detailed output (helpful for debugging purposes)
 		Options.v().set_verbose(true);
 
-		// load the class
-		logger.info("Loading {} into Soot", classToAnalyze);
-		SootClass sc = Scene.v().loadClass(classToAnalyze, SootClass.BODIES);
-		sc.setApplicationClass();
+		// load the classes
+		List<SootClass> scs = new ArrayList<SootClass>();
+		for (ClassToVerify c : cs) {
+			String classToAnalyze = c.getPackageName();
+			logger.info("Loading {} into Soot", classToAnalyze);
+			SootClass sc = Scene.v().loadClass(classToAnalyze, SootClass.BODIES);
+			sc.setApplicationClass();
+			scs.add(sc);
+		}
 
 		Scene.v().loadNecessaryClasses();
 
-		Scene.v().setEntryPoints(sc.getMethods());
-
-		for (SootMethod method : sc.getMethods()) {
-			method.retrieveActiveBody();
-			logger.debug("Loaded method {} with body:\n{}", method.toString(), method.getActiveBody());
+		// all methods of all loaded classes are entry points of the shared call graph
+		List<SootMethod> entryPoints = new ArrayList<SootMethod>();
+		for (SootClass sc : scs) {
+			entryPoints.addAll(sc.getMethods());
 		}
-		for (SootField field : sc.getFields()) {
-			logger.debug("Loaded field {}", field.toString());
+		Scene.v().setEntryPoints(entryPoints);
+
+		for (SootClass sc : scs) {
+			for (SootMethod method : sc.getMethods()) {
+				method.retrieveActiveBody();
+				logger.debug("Loaded method {} with body:\n{}", method.toString(), method.getActiveBody());
+			}
+			for (SootField field : sc.getFields()) {
+				logger.debug("Loaded field {}", field.toString());
+			}
 		}
 
-		return sc;
+		return scs;
 	}
 
 	public static void runPointsToAnalysis() {
@@ -137,6 +197,36 @@ public class SootHelper {
 				|| val.getType().toString().equals("byte");
 	}
 
+	/**
+	 * 
+	 * @param invokeExpr
+	 * @return true if invokeExpr calls sell on a Frog
+	 */
+	public static boolean isSellCall(InvokeExpr invokeExpr) {
+		SootMethod method = invokeExpr.getMethod();
+		return invokeExpr instanceof InstanceInvokeExpr && method.getName().equals(Constants.sellFunctionName)
+				&& method.getDeclaringClass().getName().equals(Constants.FrogClassName);
+	}
+
+	/**
+	 * 
+	 * @param v
+	 * @return the names of the integer locals <code>v</code> is or uses
+	 */
+	public static List<String> getIntLocalNames(Value v) {
+		List<String> ret = new ArrayList<String>();
+		if (v instanceof JimpleLocal && v.getType() instanceof IntegerType) {
+			ret.add(((Local) v).getName());
+		}
+		for (ValueBox box : v.getUseBoxes()) {
+			Value used = box.getValue();
+			if (used instanceof JimpleLocal && used.getType() instanceof IntegerType) {
+				ret.add(((Local) used).getName());
+			}
+		}
+		return ret;
+	}
+
 	public final static UnitGraph getUnitGraph(SootMethod method) {
 		Body b = method.retrieveActiveBody();
 		logger.debug("Analysing:\n" + b);
@@ -0,0 +1,36 @@
+package ch.ethz.rse;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class VerificationMetricsTest {
+
+    @Test
+    public void testToJson() {
+        VerificationMetrics metrics = new VerificationMetrics();
+        metrics.addSootLoad(2500000);
+        metrics.addSootLoad(500000);
+        metrics.addPointsTo(1000);
+
+        String json = metrics.toJson();
+        Assertions.assertTrue(json.startsWith("{\"sootLoadMs\":3.000,\"pointsToMs\":0.001,"), json);
+        Assertions.assertTrue(json.contains("\"prunedMethods\":0,"), json);
+        Assertions.assertTrue(json.contains("\"widenings\":{}"), json);
+        Assertions.assertTrue(json.contains("\"iterations\":{}"), json);
+        Assertions.assertTrue(json.endsWith("\"peakHeapBytes\":0}"), json);
+    }
+
+    @Test
+    public void testPeakHeap() {
+        VerificationMetrics.resetPeakHeap();
+        VerificationMetrics metrics = new VerificationMetrics();
+        metrics.recordPeakHeap();
+        Assertions.assertTrue(metrics.getPeakHeapBytes() > 0);
+    }
+
+    @Test
+    public void testQuote() {
+        Assertions.assertEquals("\"<A: void m(int)> if a >= 0 goto \\\"x\\\\\\u000a\"",
+                VerificationMetrics.quote("<A: void m(int)> if a >= 0 goto \"x\\\n"));
+    }
+}
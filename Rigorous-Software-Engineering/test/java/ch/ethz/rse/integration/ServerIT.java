@@ -0,0 +1,58 @@
+package ch.ethz.rse.integration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.ethz.rse.main.Server;
+
+/**
+ * Sends verification requests to a locally running {@link Server}
+ */
+public class ServerIT {
+
+	private Server server;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		this.server = new Server(0);
+		this.server.start();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		this.server.stop();
+	}
+
+	private String get(String query, int expectedStatus) throws IOException {
+		URL url = new URL("http://127.0.0.1:" + this.server.getPort() + "/verify?" + query);
+		HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+		Assertions.assertEquals(expectedStatus, connection.getResponseCode());
+		Assertions.assertNotNull(connection.getHeaderField("X-Verification-Time-Ms"));
+		InputStream is = expectedStatus == 200 ? connection.getInputStream() : connection.getErrorStream();
+		return IOUtils.toString(is, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void testRepeatedRequests() throws IOException {
+		String packageName = "ch.ethz.rse.integration.tests.Basic_Test_Safe";
+		String expected = packageName + ",NON_NEGATIVE,SAFE\n";
+		// the second request reuses the loaded scene
+		Assertions.assertEquals(expected, this.get("class=" + packageName + "&property=NON_NEGATIVE", 200));
+		Assertions.assertEquals(expected, this.get("class=" + packageName + "&property=NON_NEGATIVE", 200));
+	}
+
+	@Test
+	void testMissingClass() throws IOException {
+		this.get("property=NON_NEGATIVE", 400);
+	}
+
+}
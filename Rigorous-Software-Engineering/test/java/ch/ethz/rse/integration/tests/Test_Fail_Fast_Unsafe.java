@@ -0,0 +1,29 @@
+package ch.ethz.rse.integration.tests;
+
+import ch.ethz.rse.Frog;
+// expected results:
+// NON_NEGATIVE UNSAFE
+// ITEM_PROFIT UNSAFE
+// OVERALL_PROFIT UNSAFE
+
+// every property is refuted by the first method alone
+
+public class Test_Fail_Fast_Unsafe {
+
+    public void refuted() {
+        Frog frog = new Frog(1);
+        frog.sell(-1);
+    }
+
+    public void guarded(int a) {
+        Frog frog = new Frog(1);
+        if (a >= 0) {
+            frog.sell(a);
+        }
+    }
+
+    public void constant() {
+        Frog frog = new Frog(1);
+        frog.sell(2);
+    }
+}
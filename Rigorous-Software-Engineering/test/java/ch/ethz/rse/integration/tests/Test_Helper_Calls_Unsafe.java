@@ -0,0 +1,43 @@
+package ch.ethz.rse.integration.tests;
+
+import ch.ethz.rse.Frog;
+// expected results:
+// NON_NEGATIVE UNSAFE
+// ITEM_PROFIT UNSAFE
+// OVERALL_PROFIT UNSAFE
+
+// the results of the helper calls are unconstrained unless
+// INTERPROCEDURAL_SUMMARIES is set, which proves every price non-negative
+
+public class Test_Helper_Calls_Unsafe {
+
+    public static int price(int cost) {
+        return cost + 3;
+    }
+
+    public static int atLeastZero(int x) {
+        if (x >= 0) {
+            return x;
+        }
+        return 0;
+    }
+
+    public static int countdown(int n) {
+        if (n <= 0) {
+            return 0;
+        }
+        return countdown(n - 1);
+    }
+
+    public void m(int a) {
+        Frog frog = new Frog(2);
+        int p = price(a);
+        if (a >= 0) {
+            frog.sell(p);
+        }
+        int q = atLeastZero(a);
+        frog.sell(q);
+        int r = countdown(a);
+        frog.sell(r);
+    }
+}
@@ -0,0 +1,27 @@
+package ch.ethz.rse.integration.tests;
+
+import ch.ethz.rse.Frog;
+// expected results:
+// NON_NEGATIVE SAFE
+// ITEM_PROFIT SAFE
+// OVERALL_PROFIT SAFE
+
+// only m sells a Frog, the constructor and the helpers cannot violate any
+// property
+
+public class Test_Pruning_Safe {
+
+    public static int discount(int price) {
+        return price - 10;
+    }
+
+    public void unused() {
+        Frog frog = new Frog(5);
+        int loss = discount(0);
+    }
+
+    public void m() {
+        Frog frog = new Frog(1);
+        frog.sell(3);
+    }
+}
@@ -0,0 +1,17 @@
+package ch.ethz.rse.integration.tests;
+
+import ch.ethz.rse.Frog;
+// expected results:
+// NON_NEGATIVE SAFE
+// ITEM_PROFIT SAFE
+// OVERALL_PROFIT SAFE
+
+public class Test_Relational_Safe {
+    public void m(int a) {
+        Frog f = new Frog(1);
+        int b = a + 1;
+        if (a >= 0) {
+            f.sell(b);
+        }
+    }
+}
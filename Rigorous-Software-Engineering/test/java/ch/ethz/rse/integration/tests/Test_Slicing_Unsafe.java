@@ -0,0 +1,32 @@
+package ch.ethz.rse.integration.tests;
+
+import ch.ethz.rse.Frog;
+// expected results:
+// NON_NEGATIVE UNSAFE
+// ITEM_PROFIT UNSAFE
+// OVERALL_PROFIT UNSAFE
+
+// irrelevant computes y, which never reaches a call to sell; guarded sells a
+// price that is never constrained
+
+public class Test_Slicing_Unsafe {
+
+    public void irrelevant(int a, int b) {
+        Frog frog = new Frog(2);
+        int x = a + 1;
+        int y = b * 7;
+        if (y > 3) {
+            y = y - 1;
+        }
+        if (a > 0) {
+            frog.sell(x);
+        }
+    }
+
+    public void guarded(int a, int b) {
+        Frog frog = new Frog(1);
+        if (b > 0) {
+            frog.sell(a);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ch.ethz.rse.numerical;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import apron.Abstract1;
+import apron.ApronException;
+import apron.MpqScalar;
+import apron.Tcons1;
+import apron.Texpr1BinNode;
+import apron.Texpr1CstNode;
+import apron.Texpr1VarNode;
+import apron.Var;
+import ch.ethz.rse.VerificationProperty;
+import ch.ethz.rse.integration.tests.Test_Dead_Temporary_Safe;
+import ch.ethz.rse.pointer.PointsToInitializer;
+import ch.ethz.rse.testing.Fixtures;
+import ch.ethz.rse.utils.Configuration;
+import ch.ethz.rse.verify.Verifier;
+import soot.SootClass;
+import soot.SootHelper;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.internal.JInvokeStmt;
+import soot.jimple.internal.JimpleLocal;
+
+/**
+ * <code>b = t + 1</code> with <code>t = a + 1</code>: at the call to sell,
+ * <code>a</code> and <code>t</code> are dead, but <code>b >= 2</code> still
+ * follows from <code>a >= 0</code>
+ */
+public class LivenessProjectionTest {
+
+    private SootClass sc;
+
+    @BeforeEach
+    public void setUp() {
+        sc = Fixtures.load(Test_Dead_Temporary_Safe.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Configuration.props.setProperty("LIVENESS_PROJECTION", "false");
+    }
+
+    @Test
+    public void testDeadVariablesForgotten() throws ApronException {
+        Configuration.props.setProperty("LIVENESS_PROJECTION", "true");
+        SootMethod m = sc.getMethodByName("m");
+        NumericalAnalysis analysis = new NumericalAnalysis(m, VerificationProperty.NON_NEGATIVE,
+                new PointsToInitializer(sc), AbstractDomain.POLKA_STRICT, null);
+
+        JInvokeStmt sell = null;
+        for (Unit u : m.getActiveBody().getUnits()) {
+            if (u instanceof JInvokeStmt && SootHelper.isSellCall(((JInvokeStmt) u).getInvokeExpr())) {
+                sell = (JInvokeStmt) u;
+            }
+        }
+        String argument = ((JimpleLocal) sell.getInvokeExpr().getArg(0)).getName();
+        Abstract1 state = analysis.getFlowBefore(sell).get();
+
+        // everything but the argument of sell is forgotten...
+        for (Var v : analysis.env.getIntVars()) {
+            if (!v.toString().equals(argument)) {
+                Assertions.assertTrue(state.getBound(analysis.man, v.toString()).isTop(), v.toString());
+            }
+        }
+        // ...after projecting its relations onto the argument
+        Tcons1 atLeastTwo = new Tcons1(analysis.env, Tcons1.SUPEQ, new Texpr1BinNode(Texpr1BinNode.OP_SUB,
+                new Texpr1VarNode(argument), new Texpr1CstNode(new MpqScalar(2))));
+        Assertions.assertTrue(state.satisfy(analysis.man, atLeastTwo), state.toString());
+    }
+
+    @Test
+    public void testVerdictsUnchanged() {
+        Set<VerificationProperty> all = EnumSet.allOf(VerificationProperty.class);
+        Map<VerificationProperty, Boolean> kept = new Verifier(sc, 1).check(all);
+        Configuration.props.setProperty("LIVENESS_PROJECTION", "true");
+        Map<VerificationProperty, Boolean> projected = new Verifier(sc, 1).check(all);
+
+        Assertions.assertEquals(kept, projected);
+        Assertions.assertFalse(projected.containsValue(false), projected.toString());
+    }
+}
@@ -0,0 +1,99 @@
+package ch.ethz.rse.numerical;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import apron.*;
+
+public class NumericalStateWrapperTest {
+
+    private final Manager man = new Polka(true);
+    private final Environment env = new Environment(new String[] { "x" }, new String[] {});
+
+    private Tcons1 xNonNegative() {
+        return new Tcons1(env, Tcons1.SUPEQ, new Texpr1VarNode("x"));
+    }
+
+    @Test
+    public void testCopySharesUntilModified() throws ApronException {
+        NumericalStateWrapper original = NumericalStateWrapper.top(man, env);
+        NumericalStateWrapper copy = original.copy();
+        Assertions.assertSame(original.get(), copy.get(), "Copies should share the element");
+
+        copy.meet(xNonNegative());
+        Assertions.assertNotSame(original.get(), copy.get());
+        Assertions.assertTrue(original.get().isTop(man), "Modifying a copy must not modify the original");
+        Assertions.assertFalse(copy.get().isTop(man));
+    }
+
+    @Test
+    public void testCopyIntoSharesUntilModified() throws ApronException {
+        NumericalStateWrapper source = NumericalStateWrapper.top(man, env);
+        NumericalStateWrapper target = NumericalStateWrapper.bottom(man, env);
+        source.copyInto(target);
+        Assertions.assertSame(source.get(), target.get());
+
+        // the source is shared as well, so modifying it must copy
+        source.assign("x", new Texpr1Intern(env, new Texpr1CstNode(new MpqScalar(1))));
+        Assertions.assertTrue(target.get().isTop(man));
+        Assertions.assertFalse(source.get().isTop(man));
+    }
+
+    @Test
+    public void testEquals() throws ApronException {
+        NumericalStateWrapper w = NumericalStateWrapper.top(man, env);
+        Assertions.assertEquals(w, w.copy());
+        Assertions.assertEquals(w, NumericalStateWrapper.top(man, env));
+
+        NumericalStateWrapper positive = w.copy();
+        positive.meet(xNonNegative());
+        Assertions.assertNotEquals(w, positive);
+    }
+
+    @Test
+    public void testHashCode() throws ApronException {
+        NumericalStateWrapper first = NumericalStateWrapper.top(man, env);
+        first.meet(xNonNegative());
+        NumericalStateWrapper second = NumericalStateWrapper.top(man, env);
+        second.meet(xNonNegative());
+        second.meet(xNonNegative());
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(first.hashCode(), second.hashCode());
+
+        // the cached hash must follow in-place modifications
+        int before = second.hashCode();
+        second.assign("x", new Texpr1Intern(env, new Texpr1CstNode(new MpqScalar(-1))));
+        Assertions.assertNotEquals(before, second.hashCode());
+        Assertions.assertEquals(NumericalStateWrapper.bottom(man, env).hashCode(),
+                NumericalStateWrapper.bottom(man, env).hashCode());
+    }
+
+    @Test
+    public void testIntern() throws ApronException {
+        Map<NumericalStateWrapper, NumericalStateWrapper> table = new HashMap<NumericalStateWrapper, NumericalStateWrapper>();
+        NumericalStateWrapper first = NumericalStateWrapper.top(man, env);
+        first.meet(xNonNegative());
+        first.intern(table);
+        NumericalStateWrapper second = NumericalStateWrapper.top(man, env);
+        second.meet(xNonNegative());
+        second.intern(table);
+        Assertions.assertSame(first.get(), second.get(), "Equal states should share one element");
+
+        // modifying one of them must not affect the other, nor the table
+        second.assign("x", new Texpr1Intern(env, new Texpr1CstNode(new MpqScalar(-1))));
+        Assertions.assertNotEquals(first, second);
+        Assertions.assertEquals(1, table.size());
+        Assertions.assertTrue(table.containsKey(first));
+    }
+
+    @Test
+    public void testOwnedModifiedInPlace() throws ApronException {
+        NumericalStateWrapper w = NumericalStateWrapper.top(man, env);
+        Abstract1 elem = w.get();
+        w.meet(xNonNegative());
+        Assertions.assertSame(elem, w.get(), "Unshared elements should be modified in place");
+    }
+}
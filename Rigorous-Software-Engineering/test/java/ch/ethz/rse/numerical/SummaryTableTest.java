@@ -0,0 +1,113 @@
+package ch.ethz.rse.numerical;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import apron.ApronException;
+import apron.Tcons1;
+import apron.Texpr1VarNode;
+import ch.ethz.rse.VerificationProperty;
+import ch.ethz.rse.integration.tests.Test_Helper_Calls_Unsafe;
+import ch.ethz.rse.pointer.PointsToInitializer;
+import ch.ethz.rse.testing.Fixtures;
+import ch.ethz.rse.utils.Configuration;
+import soot.SootClass;
+import soot.SootHelper;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.internal.JInvokeStmt;
+import soot.jimple.internal.JimpleLocal;
+
+public class SummaryTableTest {
+
+    private SootClass sc;
+    private PointsToInitializer pointsTo;
+    private SummaryTable table;
+
+    @BeforeEach
+    public void setUp() {
+        sc = Fixtures.load(Test_Helper_Calls_Unsafe.class);
+        pointsTo = new PointsToInitializer(sc);
+        table = new SummaryTable(sc, pointsTo, AbstractDomain.POLKA_STRICT);
+    }
+
+    @Test
+    public void testSummarizedMethods() {
+        Assertions.assertNotNull(table.get(sc.getMethodByName("price")));
+        Assertions.assertNotNull(table.get(sc.getMethodByName("atLeastZero")));
+        // recursive, iterated to a fixpoint
+        Assertions.assertNotNull(table.get(sc.getMethodByName("countdown")));
+        // returns void
+        Assertions.assertNull(table.get(sc.getMethodByName("m")));
+        // computed once
+        Assertions.assertSame(table.get(sc.getMethodByName("price")), table.get(sc.getMethodByName("price")));
+    }
+
+    @Test
+    public void testComponentsCalleesFirst() {
+        List<SootMethod> order = new ArrayList<SootMethod>();
+        for (List<SootMethod> component : table.getComponents()) {
+            order.addAll(component);
+        }
+        int m = order.indexOf(sc.getMethodByName("m"));
+        Assertions.assertTrue(order.indexOf(sc.getMethodByName("price")) < m);
+        Assertions.assertTrue(order.indexOf(sc.getMethodByName("atLeastZero")) < m);
+        Assertions.assertTrue(order.indexOf(sc.getMethodByName("countdown")) < m);
+        Assertions.assertTrue(table.getTransitiveCallees(sc.getMethodByName("m")).contains(sc.getMethodByName("price")));
+    }
+
+    @Test
+    public void testSummariesApplied() throws ApronException {
+        // price(a) with a >= 0, atLeastZero(a), and countdown(a) = 0
+        Assertions.assertEquals(Arrays.asList(true, true, true), sellsNonNegative());
+    }
+
+    @Test
+    public void testSummariesWithLivenessProjection() throws ApronException {
+        // parameters are dead in the summarized methods, their entry values not
+        Configuration.props.setProperty("LIVENESS_PROJECTION", "true");
+        try {
+            Assertions.assertEquals(Arrays.asList(true, true, true), sellsNonNegative());
+        } finally {
+            Configuration.props.setProperty("LIVENESS_PROJECTION", "false");
+        }
+    }
+
+    /**
+     * @return for each call to sell in m, in order, true if its argument is
+     *         proven non-negative using the summaries of the callees
+     */
+    private List<Boolean> sellsNonNegative() throws ApronException {
+        SootMethod m = sc.getMethodByName("m");
+        NumericalAnalysis analysis = new NumericalAnalysis(m, VerificationProperty.NON_NEGATIVE, pointsTo,
+                AbstractDomain.POLKA_STRICT, null, table);
+
+        List<Boolean> nonNegative = new ArrayList<Boolean>();
+        for (Unit u : m.getActiveBody().getUnits()) {
+            if (!(u instanceof JInvokeStmt) || !SootHelper.isSellCall(((JInvokeStmt) u).getInvokeExpr())) {
+                continue;
+            }
+            String name = ((JimpleLocal) ((JInvokeStmt) u).getInvokeExpr().getArg(0)).getName();
+            Tcons1 constraint = new Tcons1(analysis.env, Tcons1.SUPEQ, new Texpr1VarNode(name));
+            nonNegative.add(analysis.getFlowBefore(u).get().satisfy(analysis.man, constraint));
+        }
+        return nonNegative;
+    }
+
+    @Test
+    public void testComputeAllInParallel() {
+        table.computeAll(2);
+        SootMethod price = sc.getMethodByName("price");
+        MethodSummary summary = table.get(price);
+        Assertions.assertNotNull(summary);
+        Assertions.assertSame(price, summary.getMethod());
+        Assertions.assertNotNull(table.get(sc.getMethodByName("countdown")));
+        // computed by computeAll, not again on demand
+        Assertions.assertSame(summary, table.get(price));
+    }
+}
@@ -0,0 +1,105 @@
+package ch.ethz.rse.numerical;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import soot.*;
+import soot.jimple.*;
+import soot.jimple.internal.JimpleLocal;
+import soot.toolkits.graph.BriefUnitGraph;
+
+public class WeakTopologicalOrderTest {
+
+    @Test
+    public void testNestedLoops() {
+        SootClass mockClass = new SootClass("MockClass");
+        SootMethod mockMethod = new SootMethod("mockMethod", Collections.emptyList(), VoidType.v());
+        mockClass.addMethod(mockMethod);
+
+        Body body = Jimple.v().newBody(mockMethod);
+        mockMethod.setActiveBody(body);
+
+        Local i = new JimpleLocal("i", IntType.v());
+        Local j = new JimpleLocal("j", IntType.v());
+        body.getLocals().addAll(Arrays.asList(i, j));
+
+        // i = 0; outer: if i >= 10 goto end; j = 0;
+        // inner: if j >= i goto next; j = j + 1; goto inner;
+        // next: i = i + 1; goto outer; end: return
+        Unit initI = Jimple.v().newAssignStmt(i, IntConstant.v(0));
+        Unit end = Jimple.v().newReturnVoidStmt();
+        Unit next = Jimple.v().newAssignStmt(i, Jimple.v().newAddExpr(i, IntConstant.v(1)));
+        Unit outer = Jimple.v().newIfStmt(Jimple.v().newGeExpr(i, IntConstant.v(10)), end);
+        Unit initJ = Jimple.v().newAssignStmt(j, IntConstant.v(0));
+        Unit inner = Jimple.v().newIfStmt(Jimple.v().newGeExpr(j, i), next);
+        Unit incJ = Jimple.v().newAssignStmt(j, Jimple.v().newAddExpr(j, IntConstant.v(1)));
+        Unit gotoInner = Jimple.v().newGotoStmt(inner);
+        Unit gotoOuter = Jimple.v().newGotoStmt(outer);
+        body.getUnits().addAll(Arrays.asList(initI, outer, initJ, inner, incJ, gotoInner, next, gotoOuter, end));
+
+        WeakTopologicalOrder wto = new WeakTopologicalOrder(new BriefUnitGraph(body));
+
+        // initI (outer initJ (inner incJ gotoInner) next gotoOuter) end
+        List<WeakTopologicalOrder.Element> elements = wto.getElements();
+        Assertions.assertEquals(3, elements.size());
+        Assertions.assertSame(initI, elements.get(0).head);
+        Assertions.assertSame(end, elements.get(2).head);
+
+        WeakTopologicalOrder.Element outerLoop = elements.get(1);
+        Assertions.assertTrue(outerLoop.isComponent());
+        Assertions.assertSame(outer, outerLoop.head);
+        Assertions.assertEquals(4, outerLoop.body.size());
+        Assertions.assertSame(initJ, outerLoop.body.get(0).head);
+
+        WeakTopologicalOrder.Element innerLoop = outerLoop.body.get(1);
+        Assertions.assertTrue(innerLoop.isComponent());
+        Assertions.assertSame(inner, innerLoop.head);
+        Assertions.assertSame(incJ, innerLoop.body.get(0).head);
+        Assertions.assertSame(gotoInner, innerLoop.body.get(1).head);
+
+        Assertions.assertSame(next, outerLoop.body.get(2).head);
+        Assertions.assertSame(gotoOuter, outerLoop.body.get(3).head);
+
+        Assertions.assertEquals(Arrays.asList(outer, inner), wto.getComponentHeads());
+        Assertions.assertEquals(1, wto.getDepth(outer));
+        Assertions.assertEquals(2, wto.getDepth(inner));
+    }
+
+    @Test
+    public void testLongLoopDoesNotOverflow() {
+        SootClass mockClass = new SootClass("MockClass");
+        SootMethod mockMethod = new SootMethod("mockMethod", Collections.emptyList(), VoidType.v());
+        mockClass.addMethod(mockMethod);
+
+        Body body = Jimple.v().newBody(mockMethod);
+        mockMethod.setActiveBody(body);
+
+        Local i = new JimpleLocal("i", IntType.v());
+        body.getLocals().add(i);
+
+        // loop: if i >= 10 goto end; i = i + 1; ... (n times); goto loop; end: return
+        int n = 20000;
+        Unit end = Jimple.v().newReturnVoidStmt();
+        Unit loop = Jimple.v().newIfStmt(Jimple.v().newGeExpr(i, IntConstant.v(10)), end);
+        body.getUnits().add(loop);
+        for (int k = 0; k < n; k++) {
+            body.getUnits().add(Jimple.v().newAssignStmt(i, Jimple.v().newAddExpr(i, IntConstant.v(1))));
+        }
+        body.getUnits().add(Jimple.v().newGotoStmt(loop));
+        body.getUnits().add(end);
+
+        WeakTopologicalOrder wto = new WeakTopologicalOrder(new BriefUnitGraph(body));
+
+        // (loop i = i + 1 ... goto loop) end
+        List<WeakTopologicalOrder.Element> elements = wto.getElements();
+        Assertions.assertEquals(2, elements.size());
+        Assertions.assertSame(loop, elements.get(0).head);
+        Assertions.assertEquals(n + 1, elements.get(0).body.size());
+        Assertions.assertSame(end, elements.get(1).head);
+        Assertions.assertEquals(Collections.singletonList(loop), wto.getComponentHeads());
+    }
+}
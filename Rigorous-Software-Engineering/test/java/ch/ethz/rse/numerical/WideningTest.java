@@ -0,0 +1,84 @@
+package ch.ethz.rse.numerical;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import apron.ApronException;
+import apron.Interval;
+import ch.ethz.rse.VerificationProperty;
+import ch.ethz.rse.integration.tests.Test_Non_Negative_Loop_Safe;
+import ch.ethz.rse.pointer.PointsToInitializer;
+import ch.ethz.rse.testing.Fixtures;
+import ch.ethz.rse.utils.Configuration;
+import soot.SootClass;
+import soot.SootHelper;
+import soot.SootMethod;
+import soot.Unit;
+import soot.jimple.internal.JInvokeStmt;
+import soot.jimple.internal.JimpleLocal;
+
+/**
+ * Bounds after <code>for (int i = 0; i < 20; i++)</code>, which plain widening
+ * loses
+ */
+public class WideningTest {
+
+    private SootMethod method;
+    private PointsToInitializer pointsTo;
+
+    @BeforeEach
+    public void setUp() {
+        SootClass sc = Fixtures.load(Test_Non_Negative_Loop_Safe.class);
+        method = sc.getMethodByName("m");
+        pointsTo = new PointsToInitializer(sc);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Configuration.props.setProperty("FIXPOINT_STRATEGY", "WORKLIST");
+        Configuration.props.setProperty("WIDENING_THRESHOLDS", "false");
+        Configuration.props.setProperty("NARROWING_ITERATIONS", "0");
+    }
+
+    @Test
+    public void testPlainWideningLosesBound() throws ApronException {
+        Interval i = boundAfterLoop();
+        Assertions.assertTrue(i.sup().isInfty() > 0, i.toString());
+    }
+
+    @Test
+    public void testThresholdsKeepBound() throws ApronException {
+        Configuration.props.setProperty("WIDENING_THRESHOLDS", "true");
+        Interval i = boundAfterLoop();
+        Assertions.assertEquals(0, i.sup().isInfty(), i.toString());
+        Assertions.assertTrue(i.isEqual(new Interval(20, 20)), i.toString());
+    }
+
+    @Test
+    public void testNarrowingRecoversBound() throws ApronException {
+        Configuration.props.setProperty("FIXPOINT_STRATEGY", "WTO");
+        Configuration.props.setProperty("NARROWING_ITERATIONS", "1");
+        Interval i = boundAfterLoop();
+        Assertions.assertEquals(0, i.sup().isInfty(), i.toString());
+        Assertions.assertTrue(i.isEqual(new Interval(20, 20)), i.toString());
+    }
+
+    /**
+     * @return the interval of the loop counter on loop exit, at the return
+     *         statement
+     */
+    private Interval boundAfterLoop() throws ApronException {
+        NumericalAnalysis analysis = new NumericalAnalysis(method, VerificationProperty.NON_NEGATIVE, pointsTo,
+                AbstractDomain.POLKA_STRICT, null);
+        String counter = null;
+        for (Unit u : method.getActiveBody().getUnits()) {
+            if (u instanceof JInvokeStmt && SootHelper.isSellCall(((JInvokeStmt) u).getInvokeExpr())) {
+                counter = ((JimpleLocal) ((JInvokeStmt) u).getInvokeExpr().getArg(0)).getName();
+            }
+        }
+        Unit exit = method.getActiveBody().getUnits().getLast();
+        return analysis.getFlowBefore(exit).get().getBound(analysis.man, counter);
+    }
+}
@@ -0,0 +1,50 @@
+package ch.ethz.rse.pointer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.ethz.rse.VerificationProperty;
+import ch.ethz.rse.testing.VerificationTestCase;
+import ch.ethz.rse.utils.Constants;
+import soot.Body;
+import soot.Local;
+import soot.SootClass;
+import soot.SootHelper;
+
+/**
+ * Checks the precomputed points-to table against the initializers
+ */
+public class PointsToInitializerTest {
+
+	private SootClass sc;
+	private PointsToInitializer pointsTo;
+
+	@BeforeEach
+	public void setUp() {
+		String packageName = "ch.ethz.rse.integration.tests.Basic_Test_Safe";
+		VerificationTestCase t = new VerificationTestCase(packageName, VerificationProperty.NON_NEGATIVE, true);
+		sc = SootHelper.loadClassAndAnalyze(t.getTestClass());
+		pointsTo = new PointsToInitializer(sc);
+	}
+
+	@Test
+	public void testPointsToMemoized() {
+		Body b = sc.getMethodByName("m1").retrieveActiveBody();
+		for (Local l : b.getLocals()) {
+			if (!l.getType().toString().equals(Constants.FrogClassName)) {
+				continue;
+			}
+			InitializerSet initializers = pointsTo.pointsTo(l);
+			Assertions.assertEquals(1, initializers.size());
+			// resolved once, not recomputed
+			Assertions.assertSame(initializers, pointsTo.pointsTo(l));
+
+			FrogInitializer initializer = initializers.get(0);
+			Assertions.assertSame(initializer, initializers.iterator().next());
+			Assertions.assertTrue(pointsTo.getInitializers(sc.getMethodByName("m1")).contains(initializer));
+			Assertions.assertArrayEquals(new int[] { initializer.argument }, initializers.getSortedArguments());
+		}
+	}
+
+}
@@ -0,0 +1,27 @@
+package ch.ethz.rse.testing;
+
+import ch.ethz.rse.VerificationProperty;
+import ch.ethz.rse.VerificationTask;
+import soot.SootClass;
+import soot.SootHelper;
+
+/**
+ * Loads classes compiled with the tests into Soot, for unit tests of analyses
+ * that need a real method body rather than one built unit by unit
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    /**
+     * @param fixture class compiled into the test classpath
+     * @return <code>fixture</code>, loaded and analyzed by Soot (including the
+     *         call graph)
+     */
+    public static SootClass load(Class<?> fixture) {
+        // the property is irrelevant for loading
+        VerificationTask t = new VerificationTask(fixture.getName(), VerificationProperty.NON_NEGATIVE);
+        return SootHelper.loadClassAndAnalyze(t.getTestClass());
+    }
+}
@@ -0,0 +1,41 @@
+package ch.ethz.rse.testing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SyntheticProgramGeneratorTest {
+
+    private static int count(String haystack, String needle) {
+        return haystack.split(java.util.regex.Pattern.quote(needle), -1).length - 1;
+    }
+
+    @Test
+    public void testShape() {
+        SyntheticProgramGenerator generator = new SyntheticProgramGenerator(3, 5, 2, 2, 4, 7, 42);
+        String source = generator.generate();
+
+        Assertions.assertTrue(source.contains("public class " + generator.getClassName() + " {"));
+        Assertions.assertEquals(3, count(source, "(int a) {"));
+        Assertions.assertEquals(3 * 4, count(source, "new Frog("));
+        Assertions.assertEquals(3 * 7, count(source, ".sell("));
+        Assertions.assertEquals(3 * 7, generator.getSellCount());
+        // 3 inner nodes of each branch tree of depth 2, 2 nested loops
+        Assertions.assertEquals(3 * 3, count(source, "if ("));
+        Assertions.assertEquals(3 * 2, count(source, "for (int i"));
+    }
+
+    @Test
+    public void testDeterministic() {
+        String first = new SyntheticProgramGenerator(2, 8, 3, 1, 2, 8, 7).generate();
+        String second = new SyntheticProgramGenerator(2, 8, 3, 1, 2, 8, 7).generate();
+        Assertions.assertEquals(first, second);
+    }
+
+    @Test
+    public void testInvalidSize() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new SyntheticProgramGenerator(0, 1, 1, 1, 1, 1, 0));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new SyntheticProgramGenerator(1, 1, 1, 1, 0, 1, 0));
+    }
+}
@@ -0,0 +1,52 @@
+package ch.ethz.rse.verify;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.ethz.rse.integration.tests.Test_Slicing_Unsafe;
+import ch.ethz.rse.testing.Fixtures;
+import soot.Body;
+import soot.SootClass;
+import soot.SootMethod;
+
+public class SlicerTest {
+
+    private SootClass sc;
+
+    @BeforeEach
+    public void setUp() {
+        sc = Fixtures.load(Test_Slicing_Unsafe.class);
+    }
+
+    @Test
+    public void testIrrelevantVariablesSliced() {
+        SootMethod m = sc.getMethodByName("irrelevant");
+        Body body = m.getActiveBody();
+        Slicer slicer = new Slicer(m, false);
+        Set<String> variables = slicer.getVariables();
+
+        // a flows into the argument of sell and guards it, b does neither
+        Assertions.assertTrue(variables.contains(body.getParameterLocal(0).getName()), variables.toString());
+        Assertions.assertFalse(variables.contains(body.getParameterLocal(1).getName()), variables.toString());
+        Assertions.assertTrue(slicer.getStatements().size() < body.getUnits().size());
+    }
+
+    @Test
+    public void testGuardingConditionKept() {
+        SootMethod m = sc.getMethodByName("guarded");
+        Body body = m.getActiveBody();
+        Set<String> variables = new Slicer(m, false).getVariables();
+
+        Assertions.assertTrue(variables.contains(body.getParameterLocal(0).getName()), variables.toString());
+        Assertions.assertTrue(variables.contains(body.getParameterLocal(1).getName()), variables.toString());
+    }
+
+    @Test
+    public void testOverallProfitTracked() {
+        Set<String> variables = new Slicer(sc.getMethodByName("guarded"), true).getVariables();
+        Assertions.assertTrue(variables.contains(VariablePacker.OVERALL_PROFIT));
+    }
+}
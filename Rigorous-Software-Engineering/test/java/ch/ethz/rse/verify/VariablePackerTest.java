@@ -0,0 +1,89 @@
+package ch.ethz.rse.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import soot.*;
+import soot.jimple.*;
+import soot.jimple.internal.JimpleLocal;
+
+public class VariablePackerTest {
+
+    private SootMethod mockMethod;
+
+    @BeforeEach
+    public void setUp() {
+        SootClass mockClass = new SootClass("MockClass");
+        mockMethod = new SootMethod("mockMethod", Collections.emptyList(), VoidType.v());
+        mockClass.addMethod(mockMethod);
+
+        Body body = Jimple.v().newBody(mockMethod);
+        mockMethod.setActiveBody(body);
+
+        Local a = new JimpleLocal("a", IntType.v());
+        Local b = new JimpleLocal("b", IntType.v());
+        Local c = new JimpleLocal("c", IntType.v());
+        Local d = new JimpleLocal("d", IntType.v());
+        body.getLocals().addAll(Arrays.asList(a, b, c, d));
+
+        // a = 0; b = a + 1; c = 5; d = 2; if d > c goto end; end: return
+        Unit end = Jimple.v().newReturnVoidStmt();
+        body.getUnits().add(Jimple.v().newAssignStmt(a, IntConstant.v(0)));
+        body.getUnits().add(Jimple.v().newAssignStmt(b, Jimple.v().newAddExpr(a, IntConstant.v(1))));
+        body.getUnits().add(Jimple.v().newAssignStmt(c, IntConstant.v(5)));
+        body.getUnits().add(Jimple.v().newAssignStmt(d, IntConstant.v(2)));
+        body.getUnits().add(Jimple.v().newIfStmt(Jimple.v().newGtExpr(d, c), end));
+        body.getUnits().add(end);
+    }
+
+    @Test
+    public void testPacks() {
+        VariablePacker packer = new VariablePacker(mockMethod, false);
+        List<Set<String>> packs = packer.getPacks();
+
+        Assertions.assertEquals(2, packs.size(), "Expected two independent packs");
+        Assertions.assertTrue(packs.contains(new HashSet<String>(Arrays.asList("a", "b"))));
+        Assertions.assertTrue(packs.contains(new HashSet<String>(Arrays.asList("c", "d"))));
+    }
+
+    @Test
+    public void testNoRelevantPacksWithoutSell() {
+        Assertions.assertTrue(new VariablePacker(mockMethod, false).getRelevantPacks().isEmpty());
+
+        // overall_profit is always read by the verifier
+        List<Set<String>> relevant = new VariablePacker(mockMethod, true).getRelevantPacks();
+        Assertions.assertEquals(1, relevant.size());
+        Assertions.assertTrue(relevant.get(0).contains(VariablePacker.OVERALL_PROFIT));
+    }
+
+    @Test
+    public void testSellOfOtherClassIgnored() {
+        SootClass mockClass = mockMethod.getDeclaringClass();
+        SootMethod sell = new SootMethod("sell", Collections.<Type>singletonList(IntType.v()), VoidType.v());
+        mockClass.addMethod(sell);
+        Body body = mockMethod.getActiveBody();
+        Local other = new JimpleLocal("other", mockClass.getType());
+        body.getLocals().add(other);
+        Local b = null;
+        for (Local l : body.getLocals()) {
+            if (l.getName().equals("b")) {
+                b = l;
+            }
+        }
+        // other.sell(b), where other is not a Frog
+        body.getUnits().insertBefore(Jimple.v().newInvokeStmt(Jimple.v().newVirtualInvokeExpr(other, sell.makeRef(), b)),
+                body.getUnits().getLast());
+
+        Assertions.assertTrue(new VariablePacker(mockMethod, false).getRelevantPacks().isEmpty());
+        List<Set<String>> relevant = new VariablePacker(mockMethod, true).getRelevantPacks();
+        Assertions.assertEquals(1, relevant.size());
+        Assertions.assertFalse(relevant.get(0).contains("b"), relevant.toString());
+    }
+}
@@ -0,0 +1,37 @@
+package ch.ethz.rse.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class VerdictCacheTest {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        File dir = Files.createTempDirectory("verdicts").toFile();
+        VerdictCache cache = new VerdictCache(dir);
+        Assertions.assertTrue(cache.isEnabled());
+
+        Assertions.assertNull(cache.get("abc"), "Nothing cached yet");
+        cache.put("abc", new boolean[] { true, false, true });
+        Assertions.assertArrayEquals(new boolean[] { true, false, true }, cache.get("abc"));
+
+        // entries survive a new cache instance on the same directory
+        Assertions.assertArrayEquals(new boolean[] { true, false, true }, new VerdictCache(dir).get("abc"));
+
+        // methods without calls to sell have no verdicts
+        cache.put("empty", new boolean[0]);
+        Assertions.assertArrayEquals(new boolean[0], cache.get("empty"));
+    }
+
+    @Test
+    public void testDisabled() {
+        VerdictCache cache = new VerdictCache(null);
+        Assertions.assertFalse(cache.isEnabled());
+        cache.put("abc", new boolean[] { true });
+        Assertions.assertNull(cache.get("abc"));
+    }
+}
@@ -0,0 +1,171 @@
+package ch.ethz.rse.verify;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import ch.ethz.rse.VerificationMetrics;
+import ch.ethz.rse.VerificationProperty;
+import ch.ethz.rse.integration.tests.Basic_Test_Safe;
+import ch.ethz.rse.integration.tests.Test_Fail_Fast_Unsafe;
+import ch.ethz.rse.integration.tests.Test_Pruning_Safe;
+import ch.ethz.rse.integration.tests.Test_Relational_Safe;
+import ch.ethz.rse.testing.Fixtures;
+import ch.ethz.rse.testing.VerificationTestCase;
+import ch.ethz.rse.testing.VerificationTestCaseCollector;
+import ch.ethz.rse.utils.Configuration;
+import soot.SootClass;
+import soot.SootHelper;
+import soot.SootMethod;
+
+public class VerifierTest {
+
+    @AfterEach
+    public void tearDown() {
+        Configuration.props.setProperty("FAIL_FAST", "false");
+        Configuration.props.setProperty("SELL_PRUNING", "true");
+        Configuration.props.setProperty("DOMAIN", "POLKA_STRICT");
+        Configuration.props.setProperty("VARIABLE_PACKING", "false");
+    }
+
+    /**
+     * @return each class of the integration tests once
+     */
+    public static Iterable<ClassToVerify> getTestClasses() throws IOException {
+        Map<String, ClassToVerify> classes = new TreeMap<String, ClassToVerify>();
+        for (VerificationTestCase t : VerificationTestCaseCollector.getTests()) {
+            classes.putIfAbsent(t.getTestClass().getPackageName(), t.getTestClass());
+        }
+        return classes.values();
+    }
+
+    @ParameterizedTest(name = "{index}: {0}")
+    @MethodSource("getTestClasses")
+    void testAllPropertiesMatchSingleChecks(ClassToVerify tc) {
+        // a single domain and pack, so that each analyzed method needs exactly
+        // one analysis
+        Configuration.props.setProperty("DOMAIN", "POLKA_STRICT");
+        Configuration.props.setProperty("VARIABLE_PACKING", "false");
+        SootClass sc = SootHelper.loadClassAndAnalyze(tc);
+        Set<VerificationProperty> all = EnumSet.allOf(VerificationProperty.class);
+
+        VerificationMetrics metrics = new VerificationMetrics();
+        Map<VerificationProperty, Boolean> verdicts = new Verifier(sc, 1, metrics).check(all);
+        for (VerificationProperty property : all) {
+            Assertions.assertEquals(new Verifier(sc, 1).check(property), verdicts.get(property), property.toString());
+        }
+        // one fixpoint per method answered all three properties
+        int concrete = 0;
+        for (SootMethod method : sc.getMethods()) {
+            if (method.isConcrete()) {
+                concrete++;
+            }
+        }
+        Assertions.assertEquals(concrete, metrics.getMethods() + metrics.getPrunedMethods(), metrics.toJson());
+        Assertions.assertEquals(metrics.getMethods(), metrics.getAnalyses(), metrics.toJson());
+    }
+
+    @ParameterizedTest(name = "{index}: {0}")
+    @MethodSource("getTestClasses")
+    void testParallelMatchesSequential(ClassToVerify tc) {
+        // analyze constructors too, so that there are several methods to
+        // spread over the pool
+        Configuration.props.setProperty("SELL_PRUNING", "false");
+        SootClass sc = SootHelper.loadClassAndAnalyze(tc);
+        Set<VerificationProperty> all = EnumSet.allOf(VerificationProperty.class);
+        for (VerificationProperty property : all) {
+            Assertions.assertEquals(new Verifier(sc, 1).check(property), new Verifier(sc, 4).check(property),
+                    property.toString());
+        }
+        Assertions.assertEquals(new Verifier(sc, 1).check(all), new Verifier(sc, 4).check(all));
+    }
+
+    @Test
+    public void testCascadeEscalatesOnlyWhenNeeded() {
+        Configuration.props.setProperty("DOMAIN", "BOX,POLKA_STRICT");
+
+        // intervals prove constant arguments, nothing is re-analyzed
+        SootClass constants = Fixtures.load(Basic_Test_Safe.class);
+        VerificationMetrics cheap = new VerificationMetrics();
+        Assertions.assertTrue(new Verifier(constants, 1, cheap).check(VerificationProperty.NON_NEGATIVE));
+        Assertions.assertEquals(cheap.getMethods(), cheap.getAnalyses(), cheap.toJson());
+
+        // b = a + 1 under a >= 0 needs the relation between a and b
+        SootClass relational = Fixtures.load(Test_Relational_Safe.class);
+        Configuration.props.setProperty("DOMAIN", "BOX");
+        Assertions.assertFalse(new Verifier(relational, 1).check(VerificationProperty.NON_NEGATIVE));
+        Configuration.props.setProperty("DOMAIN", "BOX,POLKA_STRICT");
+        VerificationMetrics escalated = new VerificationMetrics();
+        Assertions.assertTrue(new Verifier(relational, 1, escalated).check(VerificationProperty.NON_NEGATIVE));
+        Assertions.assertEquals(2 * escalated.getMethods(), escalated.getAnalyses(), escalated.toJson());
+    }
+
+    @Test
+    public void testMethodsWithoutSellPruned() {
+        SootClass sc = Fixtures.load(Test_Pruning_Safe.class);
+        VerificationMetrics metrics = new VerificationMetrics();
+        Verifier verifier = new Verifier(sc, 1, metrics);
+
+        for (VerificationProperty property : VerificationProperty.values()) {
+            verifier.check(property);
+        }
+        // <init>, discount and unused, on each of the three checks
+        Assertions.assertEquals(3 * 3, metrics.getPrunedMethods());
+        Assertions.assertEquals(3, metrics.getMethods());
+        Assertions.assertTrue(metrics.toJson().contains("\"prunedMethods\":9,"), metrics.toJson());
+    }
+
+    @Test
+    public void testPruningKeepsVerdicts() {
+        SootClass sc = Fixtures.load(Test_Pruning_Safe.class);
+        Configuration.props.setProperty("SELL_PRUNING", "false");
+        VerificationMetrics metrics = new VerificationMetrics();
+        Verifier verifier = new Verifier(sc, 1, metrics);
+
+        for (VerificationProperty property : VerificationProperty.values()) {
+            Assertions.assertTrue(verifier.check(property), property.toString());
+        }
+        Assertions.assertEquals(0, metrics.getPrunedMethods());
+        Assertions.assertEquals(3 * 4, metrics.getMethods());
+    }
+
+    @Test
+    public void testFailFastSkipsMethods() {
+        SootClass sc = Fixtures.load(Test_Fail_Fast_Unsafe.class);
+
+        VerificationMetrics all = new VerificationMetrics();
+        Assertions.assertFalse(new Verifier(sc, 1, all).check(VerificationProperty.NON_NEGATIVE));
+        Assertions.assertEquals(3, all.getMethods());
+
+        Configuration.props.setProperty("FAIL_FAST", "true");
+        VerificationMetrics failFast = new VerificationMetrics();
+        Assertions.assertFalse(new Verifier(sc, 1, failFast).check(VerificationProperty.NON_NEGATIVE));
+        // refuted by the first method, the others are skipped
+        Assertions.assertEquals(1, failFast.getMethods());
+    }
+
+    @Test
+    public void testFailFastInParallel() {
+        SootClass sc = Fixtures.load(Test_Fail_Fast_Unsafe.class);
+        Configuration.props.setProperty("FAIL_FAST", "true");
+        VerificationMetrics metrics = new VerificationMetrics();
+        Assertions.assertFalse(new Verifier(sc, 2, metrics).check(VerificationProperty.NON_NEGATIVE));
+        Assertions.assertTrue(metrics.getMethods() <= 3);
+    }
+
+    @Test
+    public void testFailFastKeepsSafeVerdicts() {
+        SootClass sc = Fixtures.load(Basic_Test_Safe.class);
+        Configuration.props.setProperty("FAIL_FAST", "true");
+        Assertions.assertTrue(new Verifier(sc, 1).check(VerificationProperty.NON_NEGATIVE));
+        Assertions.assertTrue(new Verifier(sc, 1).check(VerificationProperty.OVERALL_PROFIT));
+    }
+}
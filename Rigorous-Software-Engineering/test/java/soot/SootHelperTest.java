@@ -1,5 +1,6 @@
 package soot;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Assertions;
@@ -48,4 +49,20 @@ public class SootHelperTest {
 		Assertions.assertNotNull(a);
 	}
 
+	@Test
+	public void testLoadSeveralAndAnalyze() {
+		ClassToVerify c1 = this.getExampleClassToVerify();
+		String packageName = "ch.ethz.rse.integration.tests.Basic_Test_Unsafe";
+		ClassToVerify c2 = new VerificationTestCase(packageName, VerificationProperty.NON_NEGATIVE, false).getTestClass();
+		List<SootClass> scs = SootHelper.loadClassesAndAnalyze(Arrays.asList(c1, c2));
+
+		// both classes share one scene
+		Assertions.assertEquals(2, scs.size());
+		Assertions.assertEquals(c1.getPackageName(), scs.get(0).getName());
+		Assertions.assertEquals(c2.getPackageName(), scs.get(1).getName());
+		Assertions.assertTrue(Scene.v().getApplicationClasses().contains(scs.get(0)));
+		Assertions.assertTrue(Scene.v().getApplicationClasses().contains(scs.get(1)));
+		Assertions.assertNotNull(Scene.v().getPointsToAnalysis());
+	}
+
 }
\ No newline at end of file